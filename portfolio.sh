@@ -0,0 +1,11 @@
+#!/bin/sh
+# Starts PortfolioCalculator with given parameters, e.g. ./portfolio.sh -f bobs_crypto.txt -c USD
+# Class data sharing archive is used if it was created with: mvn -Pcds install
+# C1 compiler only (TieredStopAtLevel=1) is enough for single run and starts faster.
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAR="$DIR/target/portfolio-0.0.1-SNAPSHOT.jar"
+ARCHIVE="$DIR/target/portfolio.jsa"
+if [ -f "$ARCHIVE" ]; then
+    exec java -XX:SharedArchiveFile="$ARCHIVE" -XX:TieredStopAtLevel=1 -cp "$JAR" db.calc.PortfolioCalculator "$@"
+fi
+exec java -XX:TieredStopAtLevel=1 -cp "$JAR" db.calc.PortfolioCalculator "$@"
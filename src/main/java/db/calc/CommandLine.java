@@ -0,0 +1,43 @@
+package db.calc;
+
+/**
+ * Helper methods for command line parameters shared by executable classes.
+ */
+public final class CommandLine {
+
+    private CommandLine() {
+    }
+
+    /**
+     * Gets given option from command line parameters or returns its default value.
+     *
+     * @param args command line parameters
+     * @param option e.g. -f
+     * @param defaultValue
+     * @return value following the option or default value
+     */
+    public static String getOptionValue(String[] args, String option, String defaultValue) {
+        for (int i = 0; i < args.length; i++) {
+            if (option.equals(args[i]) && i < args.length - 1) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Checks if given option is provided in command line parameters.
+     *
+     * @param args command line parameters
+     * @param option e.g. -v
+     * @return true if option is provided
+     */
+    public static boolean hasOption(String[] args, String option) {
+        for (String arg : args) {
+            if (option.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
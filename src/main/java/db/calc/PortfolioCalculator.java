@@ -1,21 +1,48 @@
 package db.calc;
 
+import static db.calc.CommandLine.getOptionValue;
+import static db.calc.CommandLine.hasOption;
+
 import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.Objects;
+import java.net.SocketTimeoutException;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import db.calc.portfolio.FileBasedPortfolioProvider;
 import db.calc.portfolio.PortfolioPosition;
 import db.calc.portfolio.PortfolioProvider;
+import db.calc.report.CompositeReporter;
+import db.calc.report.ReportFormat;
+import db.calc.report.Reporter;
+import db.calc.report.TextReporter;
+import db.calc.service.CatalogPriceService;
 import db.calc.service.MinApiPriceService;
 import db.calc.service.PriceNotFoundException;
 import db.calc.service.PriceService;
+import db.calc.service.SymbolCatalog;
 
 /**
  * Simple calculator evaluating the value of given portfolio.
  * It processes positions from given file and uses price service to evaluate the value of that position.
  * <p>Default portfolio currency is EUR and portfolio file name is bobs_crypto.txt.
  * These values can be overridden with -c CURRENCY and -f FILE_NAME parameters.
+ * <p>Results are printed to standard output, additionally they can be written to file with -o REPORT_FILE
+ * in format given with -r TEXT|CSV|JSON (CSV by default).
+ * <p>Symbols supported by the service are stored in symbol_catalog.txt, other file can be given with -s CATALOG_FILE.
+ * Positions with unknown symbols are skipped without requesting their price.
+ * <p>Evaluation can be limited with -t BUDGET_MS, positions not priced within that time are excluded from the total.
  * <p>Price is retrieved from external service <a href="https://min-api.cryptocompare.com/documentation"> min-api.cryptocompare.com</a>.
  * <p>If proxy is required to connect to Internet, this can be specified with following properties:
  * -Dhttps.proxyHost=PROXY_HOST
@@ -24,25 +51,48 @@ import db.calc.service.PriceService;
  */
 public class PortfolioCalculator {
 
-    private static final String DEFAULT_CCY = "EUR";
+    public static final String DEFAULT_CCY = "EUR";
     private static final String DEFAULT_FILE_NAME = "bobs_crypto.txt";
     private static final String CCY_OPTION = "-c";
     private static final String FILE_NAME_OPTION = "-f";
     private static final String VERBOSE_OPTION = "-v";
+    private static final String REPORT_FILE_OPTION = "-o";
+    private static final String REPORT_FORMAT_OPTION = "-r";
+    private static final String DEFAULT_REPORT_FORMAT = "CSV";
+    private static final String CATALOG_FILE_OPTION = "-s";
+    public static final String DEFAULT_CATALOG_FILE_NAME = "symbol_catalog.txt";
+    private static final String BUDGET_OPTION = "-t";
+    // number of prices retrieved at the same time when evaluation has time budget
+    private static final int MAX_PARALLEL_LOOKUPS = 8;
     private final PriceService priceService;
     private final PortfolioProvider portfolioProvider;
+    private final Reporter reporter;
 
     /**
      * Creates instance of {@linkplain PortfolioCalculator} with given {@linkplain PriceService} and {@linkplain PortfolioProvider}.
+     * Results are not reported.
      *
      * @param priceService
      * @param portfolioProvider
      */
     public PortfolioCalculator(PriceService priceService, PortfolioProvider portfolioProvider) {
+        this(priceService, portfolioProvider, Reporter.NONE);
+    }
+
+    /**
+     * Creates instance of {@linkplain PortfolioCalculator} with given {@linkplain PriceService}, {@linkplain PortfolioProvider}
+     * and {@linkplain Reporter} receiving evaluation of each position and total value.
+     *
+     * @param priceService
+     * @param portfolioProvider
+     * @param reporter
+     */
+    public PortfolioCalculator(PriceService priceService, PortfolioProvider portfolioProvider, Reporter reporter) {
         this.priceService = priceService;
         this.portfolioProvider = portfolioProvider;
-        info(priceService.getInfo());
-        info(portfolioProvider.getInfo());
+        this.reporter = reporter;
+        reporter.info(priceService.getInfo());
+        reporter.info(portfolioProvider.getInfo());
     }
 
     /**
@@ -53,27 +103,139 @@ public class PortfolioCalculator {
      */
     public BigDecimal calculate(String ccy) {
         // get price for each symbol and calculate total value
-        BigDecimal total = portfolioProvider.getPortfolio().stream() //
-                .map(pos -> eval(pos, ccy)) //
-                .reduce(BigDecimal.ZERO, BigDecimal::add); //
-        info("Total value: %s %s\n", total.toPlainString(), ccy);
+        BigDecimal total = BigDecimal.ZERO;
+        for (PortfolioPosition pos : portfolioProvider.getPortfolio()) {
+            total = total.add(eval(pos, ccy));
+        }
+        reporter.total(total, ccy);
         return total;
     }
 
+    /**
+     * Calculates the value of the portfolio in given currency within given time budget.
+     * Price service is prepared before the time budget starts, e.g. symbol catalog is loaded,
+     * then prices are retrieved in parallel and each lookup gets its share of remaining time.
+     * When the time is over, positions without price are reported as timed out and are not included in the total.
+     * Lookups that fail on service timeout count as timed out too, other failures leave the position unpriced.
+     *
+     * @param ccy currency
+     * @param budgetMs maximum time of evaluation in milliseconds
+     * @return value of priced positions together with positions that were not priced
+     */
+    public Valuation calculate(String ccy, long budgetMs) {
+        // data shared by all lookups must not be loaded within the budget of single lookup
+        priceService.prepare();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        Set<PortfolioPosition> positions = portfolioProvider.getPortfolio();
+        Map<PortfolioPosition, BigDecimal> values = new LinkedHashMap<>();
+        Set<PortfolioPosition> timedOut = new HashSet<>();
+        Set<PortfolioPosition> unpriced = new HashSet<>();
+        AtomicInteger outstanding = new AtomicInteger(positions.size());
+        ExecutorService executor = Executors.newFixedThreadPool(MAX_PARALLEL_LOOKUPS, runnable -> {
+            Thread thread = new Thread(runnable, "price-lookup");
+            thread.setDaemon(true); // lookup that cannot be interrupted must not block exit
+            return thread;
+        });
+        try {
+            Map<PortfolioPosition, Future<BigDecimal>> lookups = new LinkedHashMap<>();
+            for (PortfolioPosition pos : positions) {
+                lookups.put(pos, executor.submit(() -> lookup(pos, ccy, deadline, outstanding)));
+            }
+            for (Map.Entry<PortfolioPosition, Future<BigDecimal>> lookup : lookups.entrySet()) {
+                PortfolioPosition pos = lookup.getKey();
+                try {
+                    BigDecimal price = lookup.getValue().get(Math.max(0, deadline - System.nanoTime()),
+                            TimeUnit.NANOSECONDS);
+                    BigDecimal value = price.multiply(BigDecimal.valueOf(pos.getQuantity()));
+                    reporter.position(pos, price, value, ccy);
+                    values.put(pos, value);
+                } catch (TimeoutException e) {
+                    timedOut.add(pos);
+                    reporter.skipped(pos, ccy, "Price not available within " + budgetMs + " ms");
+                } catch (ExecutionException e) {
+                    if (isTimeout(e.getCause())) {
+                        timedOut.add(pos);
+                    } else {
+                        unpriced.add(pos);
+                    }
+                    reporter.skipped(pos, ccy, e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    timedOut.add(pos);
+                    reporter.skipped(pos, ccy, "Evaluation interrupted");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Valuation valuation = new Valuation(ccy, values, timedOut, unpriced);
+        reporter.total(valuation.getTotal(), ccy);
+        return valuation;
+    }
+
+    /**
+     * Checks whether given lookup failure or any of its causes is a timeout.
+     */
+    private static boolean isTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets price of given position with timeout derived from remaining time and number of outstanding lookups.
+     */
+    private BigDecimal lookup(PortfolioPosition pos, String ccy, long deadline, AtomicInteger outstanding)
+            throws PriceNotFoundException, TimeoutException {
+        try {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                throw new TimeoutException("Price not requested, time budget exceeded");
+            }
+            // lookups waiting for a thread need their share of remaining time
+            long timeoutMs = remainingMs * MAX_PARALLEL_LOOKUPS / Math.max(MAX_PARALLEL_LOOKUPS, outstanding.get());
+            return priceService.getPrice(pos.getSymbol(), ccy, Math.max(1, timeoutMs));
+        } finally {
+            outstanding.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets price of each given position in given currency, e.g. as snapshot for
+     * {@linkplain db.calc.scenario.ScenarioEngine}. Positions without price are not included.
+     *
+     * @param positions
+     * @param ccy currency
+     * @return symbol -> price
+     */
+    public Map<String, BigDecimal> getPrices(Collection<PortfolioPosition> positions, String ccy) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        for (PortfolioPosition pos : positions) {
+            try {
+                prices.put(pos.getSymbol(), priceService.getPrice(pos.getSymbol(), ccy));
+            } catch (PriceNotFoundException e) {
+                // this may indicate invalid symbol - ignore this position
+                reporter.skipped(pos, ccy, e.getMessage());
+            }
+        }
+        return prices;
+    }
+
     /**
      * Evaluates value of the position in given currency.
      */
     private BigDecimal eval(PortfolioPosition pos, String ccy) {
         try {
-            info("Evaluating %s -> ", pos.toString());
             BigDecimal price = priceService.getPrice(pos.getSymbol(), ccy);
-            info("Price: %s %s", price.toPlainString(), ccy);
-            BigDecimal value = price.multiply(new BigDecimal(pos.getQuantity()));
-            info(", Value %s %s \n", value.toPlainString(), ccy);
+            BigDecimal value = price.multiply(BigDecimal.valueOf(pos.getQuantity()));
+            reporter.position(pos, price, value, ccy);
             return value;
         } catch (PriceNotFoundException e) {
             // this may indicate invalid symbol - ignore this position
-            info("Skipping, price not available [%s]\n", e.getMessage());
+            reporter.skipped(pos, ccy, e.getMessage());
             return BigDecimal.ZERO;
         }
     }
@@ -84,41 +246,52 @@ public class PortfolioCalculator {
     public static void main(String... args) {
         String ccy = getOptionValue(args, CCY_OPTION, DEFAULT_CCY);
         String fileName = getOptionValue(args, FILE_NAME_OPTION, DEFAULT_FILE_NAME);
+        String catalogFileName = getOptionValue(args, CATALOG_FILE_OPTION, DEFAULT_CATALOG_FILE_NAME);
+        String budget = getOptionValue(args, BUDGET_OPTION, null);
         boolean withLogging = hasOption(args, VERBOSE_OPTION);
+        Reporter reporter = TextReporter.console();
         try {
-            PortfolioCalculator calculator = new PortfolioCalculator(new MinApiPriceService(withLogging),
-                    new FileBasedPortfolioProvider(fileName));
-            calculator.calculate(ccy);
+            String reportFile = getOptionValue(args, REPORT_FILE_OPTION, null);
+            if (reportFile != null) {
+                ReportFormat format = ReportFormat.of(getOptionValue(args, REPORT_FORMAT_OPTION, DEFAULT_REPORT_FORMAT));
+                reporter = new CompositeReporter(reporter, format.create(Paths.get(reportFile)));
+            }
+            PortfolioCalculator calculator = new PortfolioCalculator(createPriceService(catalogFileName, withLogging),
+                    new FileBasedPortfolioProvider(fileName), reporter);
+            if (budget == null) {
+                calculator.calculate(ccy);
+            } else {
+                Valuation valuation = calculator.calculate(ccy, Long.parseLong(budget));
+                reporter.info(String.format("Priced %d positions, %d timed out, %d without price (%.1f%% of positions)\n",
+                        valuation.getValues().size(), valuation.getTimedOut().size(), valuation.getUnpriced().size(),
+                        valuation.getUnpricedShare() * 100));
+            }
         } catch (Exception e) {
             e.printStackTrace();
             info("Please check README.md");
+        } finally {
+            reporter.close();
         }
     }
 
     /**
-     * Gets given option from command line parameters or returns its default value.
-     */
-    private static String getOptionValue(String[] args, String option, String defaultValue) {
-        Arrays.stream(args).iterator();
-        for (int i = 0; i < args.length; i++) {
-            if (option.equals(args[i]) && i < args.length - 1) {
-                return args[i + 1];
-            }
-        }
-        return defaultValue;
-    }
-
-    /**
-     * Checks if given option is provided in command line parameters.
+     * Creates price service used from command line, i.e. {@linkplain MinApiPriceService} with {@linkplain SymbolCatalog}.
+     *
+     * @param catalogFileName file with symbol catalog
+     * @param withLogging if requests should be logged
+     * @return price service
      */
-    private static boolean hasOption(String[] args, String option) {
-        return Arrays.stream(args).anyMatch(arg -> Objects.equals(arg, option));
+    public static PriceService createPriceService(String catalogFileName, boolean withLogging) {
+        MinApiPriceService minApi = new MinApiPriceService(withLogging);
+        SymbolCatalog catalog = new SymbolCatalog(minApi, Paths.get(catalogFileName),
+                SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        return new CatalogPriceService(minApi, catalog);
     }
 
     /**
      * Logs message to standard output.
      */
-    private static void info(String format, Object... args) {
-        System.out.printf(format, args);
+    private static void info(String message) {
+        System.out.println(message);
     }
 }
@@ -0,0 +1,101 @@
+package db.calc;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Result of portfolio evaluation that may be partial, e.g. when it was limited by time budget.
+ * It contains total value of priced positions and positions that could not be priced.
+ */
+public class Valuation {
+
+    private final String ccy;
+    private final BigDecimal total;
+    private final Map<PortfolioPosition, BigDecimal> values;
+    private final Set<PortfolioPosition> timedOut;
+    private final Set<PortfolioPosition> unpriced;
+
+    /**
+     * Creates new instance.
+     *
+     * @param ccy currency
+     * @param values priced positions and their values
+     * @param timedOut positions not priced within time budget, including service timeouts
+     * @param unpriced positions without price, e.g. with invalid symbol or after service error
+     */
+    public Valuation(String ccy, Map<PortfolioPosition, BigDecimal> values, Set<PortfolioPosition> timedOut,
+            Set<PortfolioPosition> unpriced) {
+        this.ccy = ccy;
+        this.values = Collections.unmodifiableMap(values);
+        this.timedOut = Collections.unmodifiableSet(timedOut);
+        this.unpriced = Collections.unmodifiableSet(unpriced);
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal value : values.values()) {
+            sum = sum.add(value);
+        }
+        this.total = sum;
+    }
+
+    /**
+     * @return the currency
+     */
+    public String getCcy() {
+        return ccy;
+    }
+
+    /**
+     * @return total value of priced positions
+     */
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    /**
+     * @return priced positions and their values
+     */
+    public Map<PortfolioPosition, BigDecimal> getValues() {
+        return values;
+    }
+
+    /**
+     * @return positions not priced within time budget, including service timeouts
+     */
+    public Set<PortfolioPosition> getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * @return positions without price, e.g. with invalid symbol or after service error
+     */
+    public Set<PortfolioPosition> getUnpriced() {
+        return unpriced;
+    }
+
+    /**
+     * @return true if no position timed out
+     */
+    public boolean isComplete() {
+        return timedOut.isEmpty();
+    }
+
+    /**
+     * Gets share of positions that timed out or have no price, prices of these positions are not known
+     * so the share is based on number of positions.
+     *
+     * @return value between 0 and 1
+     */
+    public double getUnpricedShare() {
+        int all = values.size() + timedOut.size() + unpriced.size();
+        return all == 0 ? 0 : (double) (timedOut.size() + unpriced.size()) / all;
+    }
+
+    @Override
+    public String toString() {
+        return "Valuation[" + total.toPlainString() + " " + ccy + "|priced " + values.size() + "|timed out "
+                + timedOut.size() + "|unpriced " + unpriced.size() + "]";
+    }
+}
@@ -0,0 +1,27 @@
+package db.calc.cluster;
+
+/**
+ * Exception indicating problem with distributed evaluation, e.g. when no worker could evaluate a partition.
+ */
+@SuppressWarnings("serial")
+public class ClusterException extends RuntimeException {
+
+    /**
+     * Constructs new exception with given message.
+     *
+     * @param message
+     */
+    public ClusterException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs new exception with given message and cause.
+     *
+     * @param message
+     * @param cause
+     */
+    public ClusterException(String message, Exception cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,138 @@
+package db.calc.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import db.calc.portfolio.FileBasedPortfolioProvider;
+import db.calc.portfolio.PortfolioPosition;
+import db.calc.portfolio.PortfolioProvider;
+
+/**
+ * Part of the portfolio evaluated by single worker.
+ * It is either range of bytes of the portfolio file, that has to be accessible by the worker,
+ * or set of positions sent to the worker.
+ */
+public class Partition {
+
+    private static final byte FILE_RANGE = 1;
+    private static final byte POSITIONS = 2;
+
+    private final String fileName;
+    private final long from;
+    private final long to;
+    private final List<PortfolioPosition> positions;
+
+    private Partition(String fileName, long from, long to, List<PortfolioPosition> positions) {
+        this.fileName = fileName;
+        this.from = from;
+        this.to = to;
+        this.positions = positions;
+    }
+
+    /**
+     * Creates partition with lines starting within given range of bytes of given file.
+     *
+     * @param fileName name of the file with absolute path
+     * @param from first byte of the range
+     * @param to end of the range (exclusive)
+     * @return partition
+     */
+    public static Partition fileRange(String fileName, long from, long to) {
+        return new Partition(fileName, from, to, null);
+    }
+
+    /**
+     * Creates partition with given positions.
+     *
+     * @param positions
+     * @return partition
+     */
+    public static Partition positions(Collection<PortfolioPosition> positions) {
+        return new Partition(null, 0, 0, new ArrayList<>(positions));
+    }
+
+    /**
+     * Creates provider of positions of this partition.
+     *
+     * @return provider
+     * @throws db.calc.portfolio.PortfolioProcessingException if file cannot be read
+     */
+    public PortfolioProvider createProvider() {
+        if (positions == null) {
+            return new FileBasedPortfolioProvider(fileName, from, to);
+        }
+        Set<PortfolioPosition> portfolio = Collections.unmodifiableSet(new HashSet<>(positions));
+        return new PortfolioProvider() {
+
+            @Override
+            public Set<PortfolioPosition> getPortfolio() {
+                return portfolio;
+            }
+
+            @Override
+            public String getInfo() {
+                return "Reading portfolio from " + Partition.this + "\n";
+            }
+        };
+    }
+
+    /**
+     * Writes this partition to given stream.
+     *
+     * @param out
+     * @throws IOException
+     */
+    void write(DataOutputStream out) throws IOException {
+        if (positions == null) {
+            out.writeByte(FILE_RANGE);
+            out.writeUTF(fileName);
+            out.writeLong(from);
+            out.writeLong(to);
+        } else {
+            out.writeByte(POSITIONS);
+            out.writeInt(positions.size());
+            for (PortfolioPosition pos : positions) {
+                out.writeUTF(pos.getSymbol());
+                out.writeInt(pos.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * Reads partition from given stream.
+     *
+     * @param in
+     * @return partition
+     * @throws IOException if partition cannot be read
+     */
+    static Partition read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (type == FILE_RANGE) {
+            return fileRange(in.readUTF(), in.readLong(), in.readLong());
+        }
+        if (type != POSITIONS) {
+            throw new IOException("Unexpected partition type " + type);
+        }
+        int size = in.readInt();
+        List<PortfolioPosition> positions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            positions.add(new PortfolioPosition(in.readUTF(), in.readInt()));
+        }
+        return new Partition(null, 0, 0, positions);
+    }
+
+    @Override
+    public String toString() {
+        if (positions == null) {
+            return "Partition[" + fileName + "|" + from + "|" + to + "]";
+        }
+        return "Partition[" + positions.size() + " positions]";
+    }
+}
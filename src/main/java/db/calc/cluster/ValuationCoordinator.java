@@ -0,0 +1,261 @@
+package db.calc.cluster;
+
+import static db.calc.CommandLine.getOptionValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import db.calc.PortfolioCalculator;
+import db.calc.portfolio.FileBasedPortfolioProvider;
+import db.calc.portfolio.PortfolioPosition;
+import db.calc.portfolio.PortfolioProcessingException;
+import db.calc.portfolio.PortfolioProvider;
+import db.calc.report.Reporter;
+import db.calc.report.TextReporter;
+
+/**
+ * Coordinator evaluating portfolio with several {@linkplain ValuationWorker}s.
+ * Portfolio is split into partitions, either by ranges of the portfolio file or by hash of the symbol,
+ * partitions are sent to workers in parallel and their values are added.
+ * Positions of the same symbol may end up in different ranges, which does not change the total value.
+ * <p>If worker cannot be reached, fails to evaluate a partition or does not respond within timeout,
+ * the partition is sent to the next worker.
+ * Workers that could not be reached are tried last until they respond again.
+ * <p>Coordinator can be started with -w PORT,PORT,... of workers on local host, -f FILE_NAME and -c CURRENCY
+ * as {@linkplain PortfolioCalculator}, -m RANGE|SYMBOL to select partitioning (RANGE by default)
+ * -n PARTITIONS (number of workers by default) and -t TIMEOUT_MS for evaluation of single partition
+ * (10 minutes by default).
+ */
+public class ValuationCoordinator {
+
+    public static final int DEFAULT_TIMEOUT_MS = (int) TimeUnit.MINUTES.toMillis(10);
+    private static final String WORKERS_OPTION = "-w";
+    private static final String FILE_NAME_OPTION = "-f";
+    private static final String CCY_OPTION = "-c";
+    private static final String MODE_OPTION = "-m";
+    private static final String PARTITIONS_OPTION = "-n";
+    private static final String TIMEOUT_OPTION = "-t";
+    private static final String DEFAULT_FILE_NAME = "bobs_crypto.txt";
+    private static final String SYMBOL_MODE = "SYMBOL";
+
+    private final List<InetSocketAddress> workers;
+    private final int timeoutMs;
+    // workers that could not be reached
+    private final Set<InetSocketAddress> failed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates coordinator for given workers.
+     *
+     * @param workers addresses of the workers
+     * @param timeoutMs timeout of connection and evaluation of single partition
+     */
+    public ValuationCoordinator(List<InetSocketAddress> workers, int timeoutMs) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker must be provided");
+        }
+        this.workers = new ArrayList<>(workers);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Calculates the value of portfolio in given file, each worker reads its range of the file.
+     * The file has to be accessible by all workers with the same path.
+     *
+     * @param fileName name of the file
+     * @param ccy currency
+     * @param partitions number of ranges
+     * @return value of the portfolio
+     * @throws ClusterException if some partition could not be evaluated
+     * @throws IllegalArgumentException if number of partitions is not positive
+     */
+    public BigDecimal calculate(String fileName, String ccy, int partitions) {
+        validate(partitions);
+        Path path = Paths.get(fileName).toAbsolutePath();
+        long size;
+        try {
+            size = Files.size(path);
+        } catch (IOException e) {
+            throw new PortfolioProcessingException("Cannot read portfolio file " + path, e);
+        }
+        List<Partition> ranges = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            ranges.add(Partition.fileRange(path.toString(), size * i / partitions, size * (i + 1) / partitions));
+        }
+        return evaluate(ranges, ccy);
+    }
+
+    /**
+     * Calculates the value of portfolio from given provider, positions are sent to workers
+     * partitioned by hash of their symbol.
+     *
+     * @param provider portfolio
+     * @param ccy currency
+     * @param partitions number of partitions
+     * @return value of the portfolio
+     * @throws ClusterException if some partition could not be evaluated
+     * @throws IllegalArgumentException if number of partitions is not positive
+     */
+    public BigDecimal calculate(PortfolioProvider provider, String ccy, int partitions) {
+        validate(partitions);
+        List<List<PortfolioPosition>> buckets = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (PortfolioPosition pos : provider.getPortfolio()) {
+            buckets.get(Math.floorMod(pos.getSymbol().hashCode(), partitions)).add(pos);
+        }
+        List<Partition> symbols = new ArrayList<>(partitions);
+        for (List<PortfolioPosition> bucket : buckets) {
+            symbols.add(Partition.positions(bucket));
+        }
+        return evaluate(symbols, ccy);
+    }
+
+    /**
+     * Validates number of partitions.
+     */
+    private void validate(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Invalid number of partitions [" + partitions + "]");
+        }
+    }
+
+    /**
+     * Evaluates all partitions in parallel and adds their values.
+     */
+    private BigDecimal evaluate(List<Partition> partitions, String ccy) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, partitions.size()));
+        try {
+            List<Future<BigDecimal>> values = new ArrayList<>(partitions.size());
+            for (int i = 0; i < partitions.size(); i++) {
+                Partition partition = partitions.get(i);
+                int index = i;
+                values.add(executor.submit(() -> dispatch(partition, index, ccy)));
+            }
+            BigDecimal total = BigDecimal.ZERO;
+            for (Future<BigDecimal> value : values) {
+                total = total.add(value.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ClusterException) {
+                throw (ClusterException) e.getCause();
+            }
+            throw new ClusterException("Cannot evaluate portfolio", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClusterException("Evaluation interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends partition to workers until one of them evaluates it, starting with worker given by partition index.
+     */
+    private BigDecimal dispatch(Partition partition, int index, String ccy) {
+        List<InetSocketAddress> candidates = new ArrayList<>(workers.size());
+        List<InetSocketAddress> failedCandidates = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            InetSocketAddress worker = workers.get((index + i) % workers.size());
+            (failed.contains(worker) ? failedCandidates : candidates).add(worker);
+        }
+        candidates.addAll(failedCandidates);
+        ClusterException error = null;
+        for (InetSocketAddress worker : candidates) {
+            try {
+                BigDecimal value = send(worker, partition, ccy);
+                failed.remove(worker);
+                return value;
+            } catch (IOException e) {
+                // worker is not reachable or failed during evaluation
+                failed.add(worker);
+                error = new ClusterException("Worker " + worker + " failed to evaluate " + partition, e);
+            } catch (ClusterException e) {
+                error = e;
+            }
+            err("%s, trying next worker", error.getMessage());
+        }
+        throw error;
+    }
+
+    /**
+     * Sends partition to given worker and waits for its value.
+     */
+    private BigDecimal send(InetSocketAddress worker, Partition partition, String ccy) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(worker, timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(ccy);
+            partition.write(out);
+            out.flush();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte status = in.readByte();
+            String result = in.readUTF();
+            if (status != ValuationWorker.OK) {
+                throw new ClusterException("Worker " + worker + " failed to evaluate " + partition + ": " + result);
+            }
+            return new BigDecimal(result);
+        }
+    }
+
+    /**
+     * @see ValuationCoordinator
+     */
+    public static void main(String... args) {
+        String ports = getOptionValue(args, WORKERS_OPTION, null);
+        String fileName = getOptionValue(args, FILE_NAME_OPTION, DEFAULT_FILE_NAME);
+        String ccy = getOptionValue(args, CCY_OPTION, PortfolioCalculator.DEFAULT_CCY);
+        String mode = getOptionValue(args, MODE_OPTION, "RANGE");
+        if (ports == null) {
+            err("Workers must be provided with %s PORT,PORT,...", WORKERS_OPTION);
+            return;
+        }
+        Reporter reporter = TextReporter.console();
+        try {
+            List<InetSocketAddress> workers = new ArrayList<>();
+            for (String port : ports.split(",")) {
+                workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port.trim())));
+            }
+            int partitions = Integer.parseInt(getOptionValue(args, PARTITIONS_OPTION, String.valueOf(workers.size())));
+            int timeoutMs = Integer.parseInt(getOptionValue(args, TIMEOUT_OPTION, String.valueOf(DEFAULT_TIMEOUT_MS)));
+            ValuationCoordinator coordinator = new ValuationCoordinator(workers, timeoutMs);
+            BigDecimal total = SYMBOL_MODE.equalsIgnoreCase(mode)
+                    ? coordinator.calculate(new FileBasedPortfolioProvider(fileName), ccy, partitions)
+                    : coordinator.calculate(fileName, ccy, partitions);
+            reporter.total(total, ccy);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.out.println("Please check README.md");
+        } finally {
+            reporter.close();
+        }
+    }
+
+    /**
+     * Logs message to standard error output.
+     */
+    private static void err(String format, Object... args) {
+        System.err.println(String.format(format, args));
+    }
+}
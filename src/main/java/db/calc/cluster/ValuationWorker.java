@@ -0,0 +1,146 @@
+package db.calc.cluster;
+
+import static db.calc.CommandLine.getOptionValue;
+import static db.calc.CommandLine.hasOption;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import db.calc.PortfolioCalculator;
+import db.calc.service.PriceService;
+
+/**
+ * Worker evaluating partitions of the portfolio sent by {@linkplain ValuationCoordinator}.
+ * It listens on local port and evaluates each partition with {@linkplain PortfolioCalculator}.
+ * <p>Request contains currency followed by {@linkplain Partition}.
+ * Response contains status followed by total value or error message.
+ * <p>Worker can be started with -p PORT, optionally with -s CATALOG_FILE and -v as {@linkplain PortfolioCalculator}.
+ */
+public class ValuationWorker implements Closeable {
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+    private static final String PORT_OPTION = "-p";
+    private static final String CATALOG_FILE_OPTION = "-s";
+    private static final String VERBOSE_OPTION = "-v";
+
+    private final ServerSocket serverSocket;
+    private final PriceService priceService;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "valuation-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates worker listening on given local port.
+     *
+     * @param port port or 0 to use any free port
+     * @param priceService service providing prices
+     * @throws IOException if port cannot be used
+     */
+    public ValuationWorker(int port, PriceService priceService) throws IOException {
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.priceService = priceService;
+    }
+
+    /**
+     * @return port the worker listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting requests in background.
+     */
+    public void start() {
+        executor.execute(this::run);
+    }
+
+    /**
+     * Accepts requests until worker is closed, each request is processed in separate thread.
+     */
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> process(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    err("Cannot accept request. %s", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Evaluates partition received with given connection and sends back its value.
+     */
+    private void process(Socket socket) {
+        try (Socket s = socket;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            try {
+                String ccy = in.readUTF();
+                Partition partition = Partition.read(in);
+                BigDecimal total = new PortfolioCalculator(priceService, partition.createProvider()).calculate(ccy);
+                out.writeByte(OK);
+                out.writeUTF(total.toPlainString());
+            } catch (RuntimeException e) {
+                // report problem to coordinator, e.g. file not accessible or service not reachable
+                String message = String.valueOf(e.getMessage());
+                out.writeByte(ERROR);
+                out.writeUTF(message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+            }
+            out.flush();
+        } catch (IOException e) {
+            err("Cannot process request. %s", e.getMessage());
+        }
+    }
+
+    /**
+     * @see ValuationWorker
+     */
+    public static void main(String... args) {
+        String port = getOptionValue(args, PORT_OPTION, null);
+        String catalogFileName = getOptionValue(args, CATALOG_FILE_OPTION, PortfolioCalculator.DEFAULT_CATALOG_FILE_NAME);
+        boolean withLogging = hasOption(args, VERBOSE_OPTION);
+        if (port == null) {
+            err("Port must be provided with %s PORT", PORT_OPTION);
+            return;
+        }
+        try (ValuationWorker worker = new ValuationWorker(Integer.parseInt(port),
+                PortfolioCalculator.createPriceService(catalogFileName, withLogging))) {
+            System.out.println("Worker listening on port " + worker.getPort());
+            worker.run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.out.println("Please check README.md");
+        }
+    }
+
+    /**
+     * Logs message to standard error output.
+     */
+    private static void err(String format, Object... args) {
+        System.err.println(String.format(format, args));
+    }
+}
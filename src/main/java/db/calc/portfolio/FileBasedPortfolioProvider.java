@@ -1,25 +1,29 @@
 package db.calc.portfolio;
 
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.summingInt;
-
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of  {@linkplain PortfolioProvider} that reads positions from external file.
+ * <p>Optionally only part of the file can be read, given by range of bytes.
+ * Line belongs to the range where it starts, so adjacent ranges read every line exactly once.
+ * <p>Whole file is read as UTF-8 like {@linkplain Files#lines(Path)}, line ends with "\n", "\r" or "\r\n"
+ * and malformed input fails. Range of the file is read with {@linkplain LineReader}, see its rules.
  */
 public class FileBasedPortfolioProvider implements PortfolioProvider {
 
     // path to the file with positions
     private final Path path;
+    // range of bytes to read, whole file by default
+    private final long from;
+    private final long to;
 
     /**
      * Creates new instance for given file.
@@ -27,7 +31,24 @@ public class FileBasedPortfolioProvider implements PortfolioProvider {
      * @param fileName name of the file with absolute path
      */
     public FileBasedPortfolioProvider(String fileName) {
+        this(fileName, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates new instance for lines starting within given range of bytes of given file.
+     *
+     * @param fileName name of the file with absolute path
+     * @param from first byte of the range
+     * @param to end of the range (exclusive)
+     * @throws IllegalArgumentException if range is invalid
+     */
+    public FileBasedPortfolioProvider(String fileName, long from, long to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ")");
+        }
         path = Paths.get(fileName);
+        this.from = from;
+        this.to = to;
         if (!Files.exists(path)) {
             throw new PortfolioProcessingException("Cannot read portfolio file " + path.toAbsolutePath());
         }
@@ -35,55 +56,88 @@ public class FileBasedPortfolioProvider implements PortfolioProvider {
 
     @Override
     public Set<PortfolioPosition> getPortfolio() {
+        InvalidLines invalidLines = new InvalidLines();
+        // collect all valid positions and calculate total quantity for each symbol
+        // plain loop is used, so that single run does not pay for initialisation of streams and lambdas
+        Map<String, Integer> portfolio = new HashMap<>();
         try {
-            // collect all valid positions and calculate total quantity for each symbol
-            Map<String, Integer> portfolio = Files.lines(path) //
-                    .map(FileBasedPortfolioProvider::getPositionOrEmptyValue) //
-                    .filter(Optional::isPresent) //
-                    .map(Optional::get) //
-                    .collect( //
-                            groupingBy(PortfolioPosition::getSymbol, summingInt(PortfolioPosition::getQuantity)));
-            // convert accumulated portfolio to list
-            return portfolio.entrySet().stream().map(e -> new PortfolioPosition(e.getKey(), e.getValue()))
-                    .collect(Collectors.toSet());
+            if (from == 0 && to == Long.MAX_VALUE) {
+                try (BufferedReader reader = Files.newBufferedReader(path)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        add(portfolio, getPositionOrNull(line, invalidLines));
+                    }
+                }
+            } else {
+                try (LineReader reader = new LineReader(path, from, to)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        add(portfolio, getPositionOrNull(line, invalidLines));
+                    }
+                }
+            }
         } catch (IOException e) {
             throw new PortfolioProcessingException("Cannot read portfolio file " + path.toAbsolutePath(), e);
         }
+        // report invalid lines once instead of one message per line
+        if (invalidLines.getCount() > 0) {
+            err(invalidLines.getSummary());
+        }
+        // convert accumulated portfolio to set
+        Set<PortfolioPosition> positions = new HashSet<>();
+        for (Map.Entry<String, Integer> e : portfolio.entrySet()) {
+            positions.add(new PortfolioPosition(e.getKey(), e.getValue()));
+        }
+        return positions;
     }
 
     @Override
     public String getInfo() {
-        return "Reading portfolio from " + path.toAbsolutePath() + "\n";
+        if (from == 0 && to == Long.MAX_VALUE) {
+            return "Reading portfolio from " + path.toAbsolutePath() + "\n";
+        }
+        return "Reading portfolio from " + path.toAbsolutePath() + " [" + from + ", " + to + ")\n";
+    }
+
+    /**
+     * Adds quantity of given position to the quantity of its symbol, ignores null position.
+     */
+    private static void add(Map<String, Integer> portfolio, PortfolioPosition pos) {
+        if (pos != null) {
+            Integer quantity = portfolio.get(pos.getSymbol());
+            portfolio.put(pos.getSymbol(), quantity == null ? pos.getQuantity() : quantity + pos.getQuantity());
+        }
     }
 
     /**
      * If provided string contains symbol and quantity and can be parsed to valid {@linkplain PortfolioPosition},
-     * then new instance is created otherwise empty value is returned.
+     * then new instance is created otherwise null is returned.
      *
      * @param source
-     * @return PortfolioPosition or empty value
+     * @param invalidLines collects lines that cannot be parsed
+     * @return PortfolioPosition or null
      */
-    private static Optional<PortfolioPosition> getPositionOrEmptyValue(String source) {
+    private static PortfolioPosition getPositionOrNull(String source, InvalidLines invalidLines) {
         if (source != null && !source.trim().isEmpty()) {
             // simply split input string around "=" and extract symbol and quantity
             String[] values = source.split("=");
             if (values != null && values.length == 2) {
                 try {
-                    return Optional.of(new PortfolioPosition(values[0].trim(), Integer.valueOf(values[1].trim())));
+                    return new PortfolioPosition(values[0].trim(), Integer.parseInt(values[1].trim()));
                 } catch (IllegalArgumentException e) {
-                    err("Cannot create position from %s", Arrays.toString(values));
-                    return Optional.empty();
+                    invalidLines.add(source);
+                    return null;
                 }
             }
-            err("Cannot create position from [%s]", source);
+            invalidLines.add(source);
         }
-        return Optional.empty();
+        return null;
     }
 
     /**
      * Logs message to standard error output.
      */
-    private static void err(String format, Object... args) {
-        System.err.println(String.format(format, args));
+    private static void err(String message) {
+        System.err.println(message);
     }
 }
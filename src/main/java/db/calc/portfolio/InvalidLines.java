@@ -0,0 +1,48 @@
+package db.calc.portfolio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects invalid lines of the portfolio file so they can be reported with single summary.
+ * Only first {@value #MAX_SAMPLES} lines are kept, remaining ones are only counted.
+ */
+class InvalidLines {
+
+    static final int MAX_SAMPLES = 5;
+
+    private final List<String> samples = new ArrayList<>(MAX_SAMPLES);
+    private int count;
+
+    /**
+     * Records invalid line.
+     *
+     * @param line
+     */
+    void add(String line) {
+        if (count++ < MAX_SAMPLES) {
+            samples.add(line);
+        }
+    }
+
+    /**
+     * @return number of recorded lines
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * @return summary of recorded lines, e.g. "Ignored 7 invalid lines: [ABC==5], [XYZ], ... (2 more)"
+     */
+    String getSummary() {
+        StringBuilder sb = new StringBuilder("Ignored ").append(count).append(count == 1 ? " invalid line" : " invalid lines");
+        for (int i = 0; i < samples.size(); i++) {
+            sb.append(i == 0 ? ": [" : ", [").append(samples.get(i)).append(']');
+        }
+        if (count > samples.size()) {
+            sb.append(" ... (").append(count - samples.size()).append(" more)");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package db.calc.portfolio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 lines starting within given range of bytes of the file.
+ * Line preceding the range is skipped if it continues into the range,
+ * last line starting within the range is read completely.
+ * <p>Lines are decoded directly from the read buffer, "\n" and "\r\n" are accepted as line separators,
+ * single "\r" does not end the line, because line boundaries are found in bytes before decoding.
+ * Malformed UTF-8 input is replaced with U+FFFD.
+ */
+class LineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final long to;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    // unread bytes are between start and limit
+    private int start;
+    private int limit;
+    // position of the first unread byte in the file
+    private long position;
+
+    /**
+     * Opens given file for reading lines within given range.
+     *
+     * @param path file
+     * @param from first byte of the range
+     * @param to end of the range (exclusive)
+     * @throws IOException if file cannot be read
+     */
+    LineReader(Path path, long from, long to) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.to = to;
+        if (from > 0) {
+            try {
+                // start one byte earlier to check if the range starts with new line
+                position = from - 1;
+                channel.position(position);
+                nextLine(); // skip rest of the line that belongs to previous range
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads next line.
+     *
+     * @return line without line separator or null if there are no more lines in the range
+     * @throws IOException if file cannot be read
+     */
+    String readLine() throws IOException {
+        return position < to ? nextLine() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads bytes until the end of the line, returns null at the end of the file.
+     */
+    private String nextLine() throws IOException {
+        int scanned = start;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    String line = decode(start, i);
+                    position += i + 1 - start;
+                    start = i + 1;
+                    return line;
+                }
+            }
+            scanned = limit - start;
+            if (!fill()) {
+                // last line without line separator
+                if (start == limit) {
+                    return null;
+                }
+                String line = decode(start, limit);
+                position += limit - start;
+                start = limit;
+                return line;
+            }
+            scanned += start;
+        }
+    }
+
+    /**
+     * Moves unread bytes to the beginning of the buffer and reads more bytes, buffer grows for very long lines.
+     *
+     * @return false at the end of the file
+     */
+    private boolean fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            limit -= start;
+            start = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+        if (read < 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Decodes bytes of the line, ignoring carriage return of Windows line separator.
+     */
+    private String decode(int from, int end) {
+        if (end > from && buffer[end - 1] == '\r') {
+            end--;
+        }
+        return new String(buffer, from, end - from, StandardCharsets.UTF_8);
+    }
+}
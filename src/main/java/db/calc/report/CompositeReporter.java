@@ -0,0 +1,67 @@
+package db.calc.report;
+
+import java.math.BigDecimal;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Implementation of {@linkplain Reporter} that forwards all results to several reporters,
+ * e.g. to standard output and to a file at the same time.
+ */
+public class CompositeReporter implements Reporter {
+
+    private final Reporter[] reporters;
+
+    /**
+     * Creates new instance forwarding to given reporters.
+     *
+     * @param reporters
+     */
+    public CompositeReporter(Reporter... reporters) {
+        this.reporters = reporters.clone();
+    }
+
+    @Override
+    public void info(String message) {
+        for (Reporter reporter : reporters) {
+            reporter.info(message);
+        }
+    }
+
+    @Override
+    public void position(PortfolioPosition pos, BigDecimal price, BigDecimal value, String ccy) {
+        for (Reporter reporter : reporters) {
+            reporter.position(pos, price, value, ccy);
+        }
+    }
+
+    @Override
+    public void skipped(PortfolioPosition pos, String ccy, String reason) {
+        for (Reporter reporter : reporters) {
+            reporter.skipped(pos, ccy, reason);
+        }
+    }
+
+    @Override
+    public void total(BigDecimal total, String ccy) {
+        for (Reporter reporter : reporters) {
+            reporter.total(total, ccy);
+        }
+    }
+
+    @Override
+    public void close() {
+        // close all reporters even if one of them fails
+        ReportingException error = null;
+        for (Reporter reporter : reporters) {
+            try {
+                reporter.close();
+            } catch (ReportingException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
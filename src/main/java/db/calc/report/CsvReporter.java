@@ -0,0 +1,85 @@
+package db.calc.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Implementation of {@linkplain Reporter} writing one CSV record per result.
+ * Each record has columns: type,symbol,quantity,price,value,currency,message
+ * where type is one of position, skipped or total.
+ */
+public class CsvReporter extends WriterReporter {
+
+    private static final String HEADER = "type,symbol,quantity,price,value,currency,message\n";
+
+    /**
+     * Creates new instance writing to given writer, header is written immediately.
+     *
+     * @param writer target of the report
+     * @param closeWriter if writer should be closed together with this reporter
+     */
+    public CsvReporter(Writer writer, boolean closeWriter) {
+        super(writer, closeWriter);
+        write(HEADER);
+    }
+
+    @Override
+    protected void writePosition(Writer out, PortfolioPosition pos, BigDecimal price, BigDecimal value, String ccy)
+            throws IOException {
+        out.append("position,");
+        writeField(out, pos.getSymbol());
+        out.append(',').append(Integer.toString(pos.getQuantity())) //
+                .append(',').append(price.toPlainString()) //
+                .append(',').append(value.toPlainString()).append(',');
+        writeField(out, ccy);
+        out.append(",\n");
+    }
+
+    @Override
+    protected void writeSkipped(Writer out, PortfolioPosition pos, String ccy, String reason) throws IOException {
+        out.append("skipped,");
+        writeField(out, pos.getSymbol());
+        out.append(',').append(Integer.toString(pos.getQuantity())).append(",,,");
+        writeField(out, ccy);
+        out.append(',');
+        writeField(out, reason);
+        out.append('\n');
+    }
+
+    @Override
+    protected void writeTotal(Writer out, BigDecimal total, String ccy) throws IOException {
+        out.append("total,,,,").append(total.toPlainString()).append(',');
+        writeField(out, ccy);
+        out.append(",\n");
+    }
+
+    /**
+     * Writes field quoting it if it contains separator, quote or line break.
+     */
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,86 @@
+package db.calc.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Implementation of {@linkplain Reporter} writing one JSON object per line (JSON Lines), e.g.
+ * <pre>
+ * {"type":"position","symbol":"BTC","quantity":10,"price":10378.85,"value":103788.5,"currency":"EUR"}
+ * {"type":"skipped","symbol":"ABC","quantity":1,"currency":"EUR","message":"Cannot extract price"}
+ * {"type":"total","value":103788.5,"currency":"EUR"}
+ * </pre>
+ */
+public class JsonLinesReporter extends WriterReporter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Creates new instance writing to given writer.
+     *
+     * @param writer target of the report
+     * @param closeWriter if writer should be closed together with this reporter
+     */
+    public JsonLinesReporter(Writer writer, boolean closeWriter) {
+        super(writer, closeWriter);
+    }
+
+    @Override
+    protected void writePosition(Writer out, PortfolioPosition pos, BigDecimal price, BigDecimal value, String ccy)
+            throws IOException {
+        out.write("{\"type\":\"position\",\"symbol\":");
+        writeString(out, pos.getSymbol());
+        out.append(",\"quantity\":").append(Integer.toString(pos.getQuantity())) //
+                .append(",\"price\":").append(price.toPlainString()) //
+                .append(",\"value\":").append(value.toPlainString()) //
+                .append(",\"currency\":");
+        writeString(out, ccy);
+        out.write("}\n");
+    }
+
+    @Override
+    protected void writeSkipped(Writer out, PortfolioPosition pos, String ccy, String reason) throws IOException {
+        out.write("{\"type\":\"skipped\",\"symbol\":");
+        writeString(out, pos.getSymbol());
+        out.append(",\"quantity\":").append(Integer.toString(pos.getQuantity())).append(",\"currency\":");
+        writeString(out, ccy);
+        out.write(",\"message\":");
+        writeString(out, reason);
+        out.write("}\n");
+    }
+
+    @Override
+    protected void writeTotal(Writer out, BigDecimal total, String ccy) throws IOException {
+        out.append("{\"type\":\"total\",\"value\":").append(total.toPlainString()).append(",\"currency\":");
+        writeString(out, ccy);
+        out.write("}\n");
+    }
+
+    /**
+     * Writes given value as JSON string, null is written as JSON null.
+     */
+    private static void writeString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write("\\u00");
+                out.write(HEX[c >> 4]);
+                out.write(HEX[c & 0xF]);
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
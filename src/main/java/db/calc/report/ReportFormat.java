@@ -0,0 +1,73 @@
+package db.calc.report;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Supported formats of the report file.
+ */
+public enum ReportFormat {
+
+    TEXT {
+        @Override
+        public Reporter create(Writer writer, boolean closeWriter) {
+            return new TextReporter(writer, closeWriter);
+        }
+    },
+    CSV {
+        @Override
+        public Reporter create(Writer writer, boolean closeWriter) {
+            return new CsvReporter(writer, closeWriter);
+        }
+    },
+    JSON {
+        @Override
+        public Reporter create(Writer writer, boolean closeWriter) {
+            return new JsonLinesReporter(writer, closeWriter);
+        }
+    };
+
+    /**
+     * Creates reporter of this format writing to given writer.
+     *
+     * @param writer target of the report
+     * @param closeWriter if writer should be closed together with reporter
+     * @return reporter
+     */
+    public abstract Reporter create(Writer writer, boolean closeWriter);
+
+    /**
+     * Creates reporter of this format writing to given file. Existing file is overwritten.
+     *
+     * @param path report file
+     * @return reporter
+     * @throws ReportingException if file cannot be created
+     */
+    public Reporter create(Path path) {
+        try {
+            return create(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), true);
+        } catch (IOException e) {
+            throw new ReportingException("Cannot create report file " + path.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Gets format for given name, case is ignored.
+     *
+     * @param name
+     * @return format
+     * @throws IllegalArgumentException if format is not supported
+     */
+    public static ReportFormat of(String name) {
+        for (ReportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported report format [" + name + "]");
+    }
+}
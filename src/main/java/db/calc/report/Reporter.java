@@ -0,0 +1,78 @@
+package db.calc.report;
+
+import java.math.BigDecimal;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Receives results of portfolio evaluation.
+ * Implementations decide how (and if) results are written, the calculator does not format anything itself.
+ */
+public interface Reporter {
+
+    /**
+     * Reporter that ignores all results, used by default so evaluation does not pay for any output.
+     */
+    Reporter NONE = new Reporter() {
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void position(PortfolioPosition pos, BigDecimal price, BigDecimal value, String ccy) {
+        }
+
+        @Override
+        public void skipped(PortfolioPosition pos, String ccy, String reason) {
+        }
+
+        @Override
+        public void total(BigDecimal total, String ccy) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Reports general information, e.g. about used services.
+     *
+     * @param message
+     */
+    void info(String message);
+
+    /**
+     * Reports evaluated position.
+     *
+     * @param pos position
+     * @param price price of the symbol
+     * @param value value of the position
+     * @param ccy currency
+     */
+    void position(PortfolioPosition pos, BigDecimal price, BigDecimal value, String ccy);
+
+    /**
+     * Reports position that was excluded from evaluation.
+     *
+     * @param pos position
+     * @param ccy currency
+     * @param reason why position was skipped
+     */
+    void skipped(PortfolioPosition pos, String ccy, String reason);
+
+    /**
+     * Reports total value of the portfolio.
+     *
+     * @param total value of the portfolio
+     * @param ccy currency
+     */
+    void total(BigDecimal total, String ccy);
+
+    /**
+     * Flushes pending output and releases underlying resources.
+     * It throws {@link ReportingException} if output cannot be written.
+     */
+    void close();
+}
@@ -0,0 +1,27 @@
+package db.calc.report;
+
+/**
+ * Exception indicating problem when writing report.
+ */
+@SuppressWarnings("serial")
+public class ReportingException extends RuntimeException {
+
+    /**
+     * Constructs new exception with given message.
+     *
+     * @param message
+     */
+    public ReportingException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs new exception with given message and cause.
+     *
+     * @param message
+     * @param cause
+     */
+    public ReportingException(String message, Exception cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,57 @@
+package db.calc.report;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Implementation of {@linkplain Reporter} writing human readable report.
+ */
+public class TextReporter extends WriterReporter {
+
+    /**
+     * Creates new instance writing to given writer.
+     *
+     * @param writer target of the report
+     * @param closeWriter if writer should be closed together with this reporter
+     */
+    public TextReporter(Writer writer, boolean closeWriter) {
+        super(writer, closeWriter);
+    }
+
+    /**
+     * Creates new instance writing to standard output. Closing the reporter only flushes standard output.
+     *
+     * @return reporter
+     */
+    public static TextReporter console() {
+        return new TextReporter(new OutputStreamWriter(System.out), false);
+    }
+
+    @Override
+    protected void writeInfo(Writer out, String message) throws IOException {
+        out.write(message);
+    }
+
+    @Override
+    protected void writePosition(Writer out, PortfolioPosition pos, BigDecimal price, BigDecimal value, String ccy)
+            throws IOException {
+        out.append("Evaluating ").append(pos.toString()) //
+                .append(" -> Price: ").append(price.toPlainString()).append(' ').append(ccy) //
+                .append(", Value ").append(value.toPlainString()).append(' ').append(ccy).append('\n');
+    }
+
+    @Override
+    protected void writeSkipped(Writer out, PortfolioPosition pos, String ccy, String reason) throws IOException {
+        out.append("Evaluating ").append(pos.toString()) //
+                .append(" -> Skipping, price not available [").append(reason).append("]\n");
+    }
+
+    @Override
+    protected void writeTotal(Writer out, BigDecimal total, String ccy) throws IOException {
+        out.append("Total value: ").append(total.toPlainString()).append(' ').append(ccy).append('\n');
+    }
+}
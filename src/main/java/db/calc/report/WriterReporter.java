@@ -0,0 +1,115 @@
+package db.calc.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Base class for {@linkplain Reporter} implementations writing to buffered {@linkplain Writer}.
+ * Output is written when the buffer is full and when reporter is closed, so single results do not cause any I/O.
+ */
+public abstract class WriterReporter implements Reporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedWriter writer;
+    // false for shared streams like standard output that should be only flushed
+    private final boolean closeWriter;
+
+    /**
+     * Creates new instance writing to given writer.
+     *
+     * @param writer target of the report
+     * @param closeWriter if writer should be closed together with this reporter
+     */
+    protected WriterReporter(Writer writer, boolean closeWriter) {
+        this.writer = new BufferedWriter(writer, BUFFER_SIZE);
+        this.closeWriter = closeWriter;
+    }
+
+    @Override
+    public synchronized void info(String message) {
+        try {
+            writeInfo(writer, message);
+        } catch (IOException e) {
+            throw new ReportingException("Cannot write report", e);
+        }
+    }
+
+    @Override
+    public synchronized void position(PortfolioPosition pos, BigDecimal price, BigDecimal value, String ccy) {
+        try {
+            writePosition(writer, pos, price, value, ccy);
+        } catch (IOException e) {
+            throw new ReportingException("Cannot write report", e);
+        }
+    }
+
+    @Override
+    public synchronized void skipped(PortfolioPosition pos, String ccy, String reason) {
+        try {
+            writeSkipped(writer, pos, ccy, reason);
+        } catch (IOException e) {
+            throw new ReportingException("Cannot write report", e);
+        }
+    }
+
+    @Override
+    public synchronized void total(BigDecimal total, String ccy) {
+        try {
+            writeTotal(writer, total, ccy);
+        } catch (IOException e) {
+            throw new ReportingException("Cannot write report", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (closeWriter) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new ReportingException("Cannot write report", e);
+        }
+    }
+
+    /**
+     * Writes given text as it is, e.g. header of the report.
+     */
+    protected final synchronized void write(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new ReportingException("Cannot write report", e);
+        }
+    }
+
+    /**
+     * Writes general information, ignored by default.
+     */
+    protected void writeInfo(Writer out, String message) throws IOException {
+    }
+
+    /**
+     * Writes evaluated position.
+     */
+    protected abstract void writePosition(Writer out, PortfolioPosition pos, BigDecimal price, BigDecimal value,
+            String ccy) throws IOException;
+
+    /**
+     * Writes skipped position.
+     */
+    protected abstract void writeSkipped(Writer out, PortfolioPosition pos, String ccy, String reason)
+            throws IOException;
+
+    /**
+     * Writes total value of the portfolio.
+     */
+    protected abstract void writeTotal(Writer out, BigDecimal total, String ccy) throws IOException;
+}
@@ -0,0 +1,127 @@
+package db.calc.scenario;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Evaluates portfolio under many price-shock scenarios.
+ * <p>Prices are resolved once and copied together with quantities to primitive arrays,
+ * scenarios are then evaluated in parallel with fork/join, each task evaluating a range of scenarios.
+ * Values are calculated with double precision, use {@linkplain db.calc.PortfolioCalculator} for exact value.
+ */
+public class ScenarioEngine {
+
+    // number of scenarios evaluated by single task
+    private static final int SCENARIOS_PER_TASK = 64;
+
+    private final String[] symbols;
+    private final double[] prices;
+    private final double[] quantities;
+
+    /**
+     * Creates new engine for given prices and positions. Positions without price are not evaluated.
+     *
+     * @param prices symbol -> price
+     * @param positions accumulated positions
+     */
+    public ScenarioEngine(Map<String, BigDecimal> prices, Collection<PortfolioPosition> positions) {
+        int size = (int) positions.stream().filter(pos -> prices.containsKey(pos.getSymbol())).count();
+        this.symbols = new String[size];
+        this.prices = new double[size];
+        this.quantities = new double[size];
+        int i = 0;
+        for (PortfolioPosition pos : positions) {
+            BigDecimal price = prices.get(pos.getSymbol());
+            if (price != null) {
+                symbols[i] = pos.getSymbol();
+                this.prices[i] = price.doubleValue();
+                quantities[i] = pos.getQuantity();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @return number of evaluated positions
+     */
+    public int getPositions() {
+        return symbols.length;
+    }
+
+    /**
+     * @return value of the portfolio without any shock
+     */
+    public double getValue() {
+        double total = 0;
+        for (int i = 0; i < prices.length; i++) {
+            total += prices[i] * quantities[i];
+        }
+        return total;
+    }
+
+    /**
+     * Evaluates portfolio for each scenario of given matrix using common fork/join pool.
+     *
+     * @param matrix shocks
+     * @return value of the portfolio for each scenario
+     */
+    public double[] evaluate(ShockMatrix matrix) {
+        return evaluate(matrix, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates portfolio for each scenario of given matrix using given fork/join pool.
+     *
+     * @param matrix shocks
+     * @param pool
+     * @return value of the portfolio for each scenario
+     */
+    public double[] evaluate(ShockMatrix matrix, ForkJoinPool pool) {
+        int[] indexes = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            indexes[i] = matrix.indexOf(symbols[i]);
+        }
+        double[] values = new double[matrix.getScenarios()];
+        pool.invoke(new ScenarioTask(matrix, indexes, values, 0, values.length));
+        return values;
+    }
+
+    /**
+     * Evaluates range of scenarios, splitting it until it is small enough.
+     */
+    @SuppressWarnings("serial")
+    private class ScenarioTask extends RecursiveAction {
+
+        private final ShockMatrix matrix;
+        private final int[] indexes;
+        private final double[] values;
+        private final int from;
+        private final int to;
+
+        ScenarioTask(ShockMatrix matrix, int[] indexes, double[] values, int from, int to) {
+            this.matrix = matrix;
+            this.indexes = indexes;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SCENARIOS_PER_TASK) {
+                for (int s = from; s < to; s++) {
+                    values[s] = matrix.value(s, prices, quantities, indexes);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScenarioTask(matrix, indexes, values, from, middle),
+                        new ScenarioTask(matrix, indexes, values, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package db.calc.scenario;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Matrix of per-symbol price shocks, one row per scenario.
+ * <p>Supported shocks are:
+ * <ul>
+ * <li>absolute - shock is added to the price</li>
+ * <li>relative - price is multiplied by (1 + shock)</li>
+ * <li>correlated - relative shock of each symbol is derived from shared factors,
+ * shock = sum(loading[symbol][factor] * factorShock[scenario][factor])</li>
+ * </ul>
+ * Symbols that are not part of the matrix are not shocked. Shocked price never drops below zero.
+ * <p>Shocks are stored in flat arrays, so the matrix can be evaluated without allocation.
+ */
+public class ShockMatrix {
+
+    private enum Type {
+        ABSOLUTE, RELATIVE, CORRELATED
+    }
+
+    private final Type type;
+    private final int scenarios;
+    // number of shocks per scenario, either symbols or factors
+    private final int width;
+    // row-major scenarios x width
+    private final double[] shocks;
+    // symbol -> index of its column or its loadings
+    private final Map<String, Integer> symbols;
+    // row-major symbols x factors, only for correlated shocks
+    private final double[] loadings;
+
+    private ShockMatrix(Type type, String[] symbols, double[][] shocks, double[][] loadings) {
+        this.type = type;
+        this.scenarios = shocks.length;
+        this.width = scenarios > 0 ? shocks[0].length
+                : loadings != null && loadings.length > 0 ? loadings[0].length : symbols.length;
+        this.shocks = flatten(shocks, width);
+        this.symbols = new HashMap<>();
+        for (int i = 0; i < symbols.length; i++) {
+            if (this.symbols.put(symbols[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate symbol [" + symbols[i] + "]");
+            }
+        }
+        this.loadings = loadings == null ? null : flatten(loadings, width);
+        if (loadings != null && loadings.length != symbols.length) {
+            throw new IllegalArgumentException("Expected loadings for " + symbols.length + " symbols");
+        }
+        if (loadings == null && width != symbols.length && scenarios > 0) {
+            throw new IllegalArgumentException("Expected shocks for " + symbols.length + " symbols");
+        }
+    }
+
+    /**
+     * Creates matrix of shocks added to the price.
+     *
+     * @param symbols symbols of the columns
+     * @param shocks scenarios x symbols
+     * @return matrix
+     * @throws IllegalArgumentException if dimensions do not match or symbols are not unique
+     */
+    public static ShockMatrix absolute(String[] symbols, double[][] shocks) {
+        return new ShockMatrix(Type.ABSOLUTE, symbols, shocks, null);
+    }
+
+    /**
+     * Creates matrix of shocks relative to the price, e.g. -0.1 decreases price by 10%.
+     *
+     * @param symbols symbols of the columns
+     * @param shocks scenarios x symbols
+     * @return matrix
+     * @throws IllegalArgumentException if dimensions do not match or symbols are not unique
+     */
+    public static ShockMatrix relative(String[] symbols, double[][] shocks) {
+        return new ShockMatrix(Type.RELATIVE, symbols, shocks, null);
+    }
+
+    /**
+     * Creates matrix of relative shocks derived from shared factors.
+     *
+     * @param symbols symbols of the loadings
+     * @param loadings symbols x factors, sensitivity of each symbol to each factor
+     * @param factorShocks scenarios x factors
+     * @return matrix
+     * @throws IllegalArgumentException if dimensions do not match or symbols are not unique
+     */
+    public static ShockMatrix correlated(String[] symbols, double[][] loadings, double[][] factorShocks) {
+        return new ShockMatrix(Type.CORRELATED, symbols, factorShocks, loadings);
+    }
+
+    /**
+     * @return number of scenarios
+     */
+    public int getScenarios() {
+        return scenarios;
+    }
+
+    /**
+     * Gets index of given symbol in this matrix.
+     *
+     * @param symbol
+     * @return index or -1 if symbol is not shocked
+     */
+    int indexOf(String symbol) {
+        Integer index = symbols.get(symbol);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Calculates value of positions in given scenario.
+     *
+     * @param scenario index of the scenario
+     * @param prices price of each position
+     * @param quantities quantity of each position
+     * @param indexes index of each position in this matrix, see {@link #indexOf(String)}
+     * @return value of all positions
+     */
+    double value(int scenario, double[] prices, double[] quantities, int[] indexes) {
+        int row = scenario * width;
+        double total = 0;
+        for (int i = 0; i < prices.length; i++) {
+            int index = indexes[i];
+            double price = prices[i];
+            if (index >= 0) {
+                switch (type) {
+                case ABSOLUTE:
+                    price += shocks[row + index];
+                    break;
+                case RELATIVE:
+                    price *= 1 + shocks[row + index];
+                    break;
+                default:
+                    double shock = 0;
+                    int loading = index * width;
+                    for (int f = 0; f < width; f++) {
+                        shock += loadings[loading + f] * shocks[row + f];
+                    }
+                    price *= 1 + shock;
+                }
+                if (price < 0) {
+                    price = 0;
+                }
+            }
+            total += price * quantities[i];
+        }
+        return total;
+    }
+
+    /**
+     * Copies rows of given matrix to single array.
+     */
+    private static double[] flatten(double[][] matrix, int width) {
+        double[] flat = new double[matrix.length * width];
+        for (int i = 0; i < matrix.length; i++) {
+            if (matrix[i].length != width) {
+                throw new IllegalArgumentException("Expected " + width + " values in row " + i);
+            }
+            System.arraycopy(matrix[i], 0, flat, i * width, width);
+        }
+        return flat;
+    }
+}
@@ -0,0 +1,70 @@
+package db.calc.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Implementation of {@linkplain PriceService} that checks {@linkplain SymbolCatalog} before calling other service.
+ * Unknown symbols are rejected without calling the service and symbols the service reports as not traded
+ * ({@linkplain MarketNotFoundException}) are added to the catalog. Other failures are not remembered, as they may be transient.
+ */
+public class CatalogPriceService implements PriceService {
+
+    private final PriceService priceService;
+    private final SymbolCatalog catalog;
+
+    /**
+     * Creates new instance.
+     *
+     * @param priceService service providing prices
+     * @param catalog catalog of supported symbols
+     */
+    public CatalogPriceService(PriceService priceService, SymbolCatalog catalog) {
+        this.priceService = priceService;
+        this.catalog = catalog;
+    }
+
+    @Override
+    public BigDecimal getPrice(String symbol, String ccy) throws PriceServiceException, PriceNotFoundException {
+        checkCatalog(symbol, ccy);
+        try {
+            return priceService.getPrice(symbol, ccy);
+        } catch (MarketNotFoundException e) {
+            catalog.reject(symbol, ccy);
+            throw e;
+        }
+    }
+
+    @Override
+    public BigDecimal getPrice(String symbol, String ccy, long timeoutMs)
+            throws PriceServiceException, PriceNotFoundException {
+        checkCatalog(symbol, ccy);
+        try {
+            return priceService.getPrice(symbol, ccy, timeoutMs);
+        } catch (MarketNotFoundException e) {
+            catalog.reject(symbol, ccy);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the catalog, retrieving symbols if stored ones are missing or outdated.
+     */
+    @Override
+    public void prepare() {
+        catalog.load();
+    }
+
+    @Override
+    public String getInfo() {
+        return priceService.getInfo() + "Using symbol catalog " + catalog.getPath().toAbsolutePath() + "\n";
+    }
+
+    /**
+     * Throws {@linkplain PriceNotFoundException} if catalog does not know given symbol and currency.
+     */
+    private void checkCatalog(String symbol, String ccy) throws PriceNotFoundException {
+        if (catalog.isUnknown(symbol, ccy)) {
+            throw new PriceNotFoundException("Unknown symbol " + symbol + " in " + ccy);
+        }
+    }
+}
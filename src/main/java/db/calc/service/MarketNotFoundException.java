@@ -0,0 +1,18 @@
+package db.calc.service;
+
+/**
+ * Exception indicating that price service has no market for symbol and currency,
+ * unlike other {@linkplain PriceNotFoundException}s this is not expected to change with next request.
+ */
+@SuppressWarnings("serial")
+public class MarketNotFoundException extends PriceNotFoundException {
+
+    /**
+     * Constructs new exception with given message.
+     *
+     * @param message
+     */
+    public MarketNotFoundException(String message) {
+        super(message);
+    }
+}
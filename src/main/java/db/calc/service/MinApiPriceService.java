@@ -6,25 +6,32 @@ import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import javax.net.ssl.HttpsURLConnection;
 
 /**
  * Implementation of {@linkplain PriceService} that uses <a href="https://min-api.cryptocompare.com/documentation"> min-api API.
+ * It is also {@linkplain SymbolSource} providing all coins listed by the API.
+ * Base URL of the API can be overridden with system property minapi.url, it has to use HTTPS.
  * To log request/response, set logging to Level.FINE.
  */
-public class MinApiPriceService implements PriceService {
+public class MinApiPriceService implements PriceService, SymbolSource {
 
     private static final String CONTENT_TYPE_JSON = "application/json";
-    private static final String MIN_API_URL = "https://min-api.cryptocompare.com/data/price";
+    // base URL of the API, can be changed with system property minapi.url, e.g. to use local stub in benchmarks
+    private static final String BASE_URL = System.getProperty("minapi.url", "https://min-api.cryptocompare.com/data");
+    private static final String MIN_API_URL = BASE_URL + "/price";
+    private static final String COIN_LIST_URL = BASE_URL + "/all/coinlist";
     private static final String HTTP_GET_METHOD = "GET";
     private static final int CONNECTION_TIMEOUT_MS = 5000; // 5 seconds
     private static final int READ_TIMEOUT_MS = 5000; // 5 seconds
     private static final int HTTP_OK = 200;
-    private static final Pattern RESPONSE_PATTERN = Pattern.compile("\\{\"(\\w+)\":(.+)\\}"); // e.g. {"EUR":10378.85}
+    // start of error message for unknown symbol or currency, e.g. "There is no data for the symbol ABC ."
+    private static final String NO_DATA_MESSAGE = "\"Message\":\"There is no data for";
 
     private final boolean withLogging;
 
@@ -49,11 +56,21 @@ public class MinApiPriceService implements PriceService {
 
     @Override
     public BigDecimal getPrice(String symbol, String ccy) throws PriceServiceException, PriceNotFoundException {
+        return getPrice(symbol, ccy, Math.max(CONNECTION_TIMEOUT_MS, READ_TIMEOUT_MS));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Given timeout limits both connection and read timeouts.
+     */
+    @Override
+    public BigDecimal getPrice(String symbol, String ccy, long timeoutMs)
+            throws PriceServiceException, PriceNotFoundException {
         validate(symbol, ccy);
         URL minApi = buildUrl(symbol, ccy);
         out("Request:" + minApi.toString());
         try {
-            String response = readResponse(sendRequest(minApi));
+            String response = readResponse(sendRequest(minApi, timeoutMs));
             out("Response:" + response);
             return extractPrice(ccy, response);
         } catch (IOException e) {
@@ -62,6 +79,20 @@ public class MinApiPriceService implements PriceService {
         }
     }
 
+    @Override
+    public Set<String> getSymbols() throws PriceServiceException {
+        URL coinList = toUrl(COIN_LIST_URL);
+        out("Request:" + coinList.toString());
+        try {
+            String response = readResponse(sendRequest(coinList, Math.max(CONNECTION_TIMEOUT_MS, READ_TIMEOUT_MS)));
+            out("Response length:" + response.length());
+            return extractSymbols(response);
+        } catch (IOException e) {
+            // most likely service is unreachable
+            throw new PriceServiceException("Cannot connect to " + COIN_LIST_URL, e);
+        }
+    }
+
     /**
      * Validates symbol and currency.
      */
@@ -75,13 +106,15 @@ public class MinApiPriceService implements PriceService {
     }
 
     /**
-     * Sends request using given URL.
+     * Sends request using given URL, connection and read timeouts are limited by given timeout.
      */
-    private HttpsURLConnection sendRequest(URL minApi) throws IOException {
+    private HttpsURLConnection sendRequest(URL minApi, long timeoutMs) throws IOException {
+        // 0 would mean no timeout
+        int timeout = (int) Math.max(1, Math.min(Integer.MAX_VALUE, timeoutMs));
         HttpsURLConnection connection = (HttpsURLConnection) minApi.openConnection();
         connection.setRequestMethod(HTTP_GET_METHOD);
-        connection.setConnectTimeout(CONNECTION_TIMEOUT_MS);
-        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setConnectTimeout(Math.min(CONNECTION_TIMEOUT_MS, timeout));
+        connection.setReadTimeout(Math.min(READ_TIMEOUT_MS, timeout));
         connection.setRequestProperty("Accept", CONTENT_TYPE_JSON);
         connection.connect();
         // only 200 expected
@@ -96,16 +129,24 @@ public class MinApiPriceService implements PriceService {
      * Reads response from given connection.
      */
     private String readResponse(HttpsURLConnection connection) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-        return reader.lines().collect(Collectors.joining());
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                response.append(line);
+            }
+        }
+        return response.toString();
     }
 
     /**
      * Extracts the price for given currency from response string.
+     * Error response for unknown symbol or currency results in {@linkplain MarketNotFoundException},
+     * other errors, e.g. exceeded rate limit, in {@linkplain PriceNotFoundException}.
      */
-    private BigDecimal extractPrice(String ccy, String response) throws PriceNotFoundException {
+    BigDecimal extractPrice(String ccy, String response) throws PriceNotFoundException {
         // use simple pattern to check the response and extract price
-        Matcher matcher = RESPONSE_PATTERN.matcher(response);
+        Matcher matcher = Patterns.RESPONSE_PATTERN.matcher(response);
         if (matcher.matches() && matcher.group(1).equals(ccy)) {
             try {
                 return new BigDecimal(matcher.group(2));
@@ -113,22 +154,56 @@ public class MinApiPriceService implements PriceService {
                 System.err.printf("Cannot extract price from [%s]. %s", response, e.getMessage());
             }
         }
+        if (response.contains(NO_DATA_MESSAGE)) {
+            throw new MarketNotFoundException("No price available in " + response);
+        }
         throw new PriceNotFoundException("Cannot extract price from " + response);
     }
 
+    /**
+     * Extracts all symbols from coin list response string.
+     */
+    private Set<String> extractSymbols(String response) {
+        Set<String> symbols = new HashSet<>();
+        Matcher matcher = Patterns.SYMBOL_PATTERN.matcher(response);
+        while (matcher.find()) {
+            symbols.add(matcher.group(1));
+        }
+        if (symbols.isEmpty()) {
+            throw new PriceServiceException("Cannot extract symbols from " + COIN_LIST_URL);
+        }
+        return symbols;
+    }
+
     /**
      * Builds request URL for given symbol and currency.
      */
     private URL buildUrl(String symbol, String ccy) {
         StringBuilder sb = new StringBuilder(MIN_API_URL);
         sb.append("?fsym=").append(symbol).append("&tsyms=").append(ccy);
+        return toUrl(sb.toString());
+    }
+
+    /**
+     * Creates URL from given string.
+     */
+    private URL toUrl(String url) {
         try {
-            return new URL(sb.toString());
+            return new URL(url);
         } catch (MalformedURLException e) {
-            throw new PriceServiceException("Invalid URL " + sb.toString(), e);
+            throw new PriceServiceException("Invalid URL " + url, e);
         }
     }
 
+    /**
+     * Holds patterns used to parse responses, they are compiled with the first response and not when the service is created.
+     */
+    private static class Patterns {
+
+        static final Pattern RESPONSE_PATTERN = Pattern.compile("\\{\"(\\w+)\":(.+)\\}"); // e.g. {"EUR":10378.85}
+        static final Pattern SYMBOL_PATTERN = Pattern.compile("\"Symbol\":\"([^\"]+)\""); // e.g. "Symbol":"BTC"
+    }
+
     /**
      * Logs message to standard output if logging is enabled.
      */
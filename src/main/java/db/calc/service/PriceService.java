@@ -19,6 +19,29 @@ public interface PriceService {
      */
     BigDecimal getPrice(String symbol, String ccy) throws PriceServiceException, PriceNotFoundException;
 
+    /**
+     * Gets the current price of given cryptocurrency in other currency, waiting at most given time for the service.
+     * By default timeout is ignored and implementation's own timeouts are used.
+     *
+     * @param symbol cryptocurrency
+     * @param ccy currency
+     * @param timeoutMs maximum time to wait for the service in milliseconds
+     * @return current price
+     * @throws PriceServiceException if service is not reachable within given time
+     * @throws PriceNotFoundException if symbol or currency is not valid
+     */
+    default BigDecimal getPrice(String symbol, String ccy, long timeoutMs)
+            throws PriceServiceException, PriceNotFoundException {
+        return getPrice(symbol, ccy);
+    }
+
+    /**
+     * Prepares the service for price lookups, e.g. loads data that would be otherwise loaded by the first lookup.
+     * By default it does nothing.
+     */
+    default void prepare() {
+    }
+
     /**
      * Gets information about implementation. 
      * @return
@@ -0,0 +1,215 @@
+package db.calc.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local index of symbols supported by price service, used to reject unknown symbols without calling the service.
+ * <p>Symbols are retrieved from {@linkplain SymbolSource} and stored in a file, one symbol per line,
+ * after header line with the time of retrieval, e.g. "#retrieved=1539000000000".
+ * The file is reused until the time of retrieval is older than refresh interval, then symbols are retrieved again.
+ * File without header or without symbols is always outdated.
+ * If symbols cannot be retrieved, outdated file is used and if there are no symbols, all symbols are accepted.
+ * <p>Catalog also remembers symbol and currency pairs rejected by price service (negative cache).
+ * Rejected pairs are stored in the same file with prefix "-" and are cleared when symbols are refreshed.
+ */
+public class SymbolCatalog {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MS = TimeUnit.HOURS.toMillis(24);
+    private static final long RETRY_INTERVAL_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final String REJECTED_PREFIX = "-";
+    private static final String HEADER_PREFIX = "#retrieved=";
+
+    private final SymbolSource source;
+    // path to the file with symbols
+    private final Path path;
+    private final long refreshIntervalMs;
+    // empty if symbols are not available
+    private volatile Set<String> symbols = Collections.emptySet();
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    // time of next refresh, 0 before symbols are loaded
+    private volatile long nextRefresh;
+
+    /**
+     * Creates new catalog. Symbols are loaded with first lookup or with {@linkplain #load()}.
+     *
+     * @param source source of symbols
+     * @param path file with stored symbols
+     * @param refreshIntervalMs how long stored symbols are valid
+     */
+    public SymbolCatalog(SymbolSource source, Path path, long refreshIntervalMs) {
+        this.source = source;
+        this.path = path;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * Checks if price cannot exist for given symbol and currency,
+     * either symbol is not supported or it was already rejected for given currency.
+     *
+     * @param symbol cryptocurrency
+     * @param ccy currency
+     * @return true if price service does not need to be called
+     */
+    public boolean isUnknown(String symbol, String ccy) {
+        load();
+        Set<String> current = symbols;
+        return (!current.isEmpty() && !current.contains(symbol)) || rejected.contains(key(symbol, ccy));
+    }
+
+    /**
+     * Loads symbols now instead of with the next lookup, if they are not loaded yet or outdated.
+     */
+    public void load() {
+        if (System.currentTimeMillis() >= nextRefresh) {
+            refresh();
+        }
+    }
+
+    /**
+     * Remembers that price service has no price for given symbol and currency.
+     *
+     * @param symbol cryptocurrency
+     * @param ccy currency
+     */
+    public void reject(String symbol, String ccy) {
+        String key = key(symbol, ccy);
+        if (rejected.add(key)) {
+            try {
+                Files.write(path, Collections.singletonList(REJECTED_PREFIX + key), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                err("Cannot store rejected symbol in %s. %s", path.toAbsolutePath(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return path to the file with symbols
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Loads symbols from the file or from the source if the file is missing or outdated.
+     */
+    private synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        if (now < nextRefresh) {
+            return; // already refreshed by other thread
+        }
+        StoredCatalog stored = null;
+        if (Files.exists(path)) {
+            try {
+                stored = read();
+            } catch (IOException e) {
+                err("Cannot read symbols from %s. %s", path.toAbsolutePath(), e.getMessage());
+            }
+        }
+        if (stored != null && !stored.symbols.isEmpty() && stored.retrieved + refreshIntervalMs > now) {
+            use(stored);
+            nextRefresh = stored.retrieved + refreshIntervalMs;
+            return;
+        }
+        try {
+            Set<String> retrieved = source.getSymbols();
+            rejected.clear();
+            symbols = retrieved;
+            nextRefresh = now + refreshIntervalMs;
+            store(now);
+        } catch (PriceServiceException e) {
+            // keep outdated symbols if available and try again later
+            err("Cannot retrieve symbols. %s", e.getMessage());
+            nextRefresh = now + RETRY_INTERVAL_MS;
+            if (symbols.isEmpty() && stored != null) {
+                use(stored);
+            }
+        }
+    }
+
+    /**
+     * Reads time of retrieval, symbols and rejected pairs from the file.
+     */
+    private StoredCatalog read() throws IOException {
+        StoredCatalog stored = new StoredCatalog();
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (i == 0 && line.startsWith(HEADER_PREFIX)) {
+                try {
+                    stored.retrieved = Long.parseLong(line.substring(HEADER_PREFIX.length()));
+                } catch (NumberFormatException e) {
+                    err("Invalid header in %s [%s]", path.toAbsolutePath(), line);
+                }
+            } else if (line.startsWith(REJECTED_PREFIX)) {
+                stored.rejected.add(line.substring(REJECTED_PREFIX.length()));
+            } else if (!line.isEmpty()) {
+                stored.symbols.add(line);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Uses symbols and rejected pairs read from the file.
+     */
+    private void use(StoredCatalog stored) {
+        rejected.addAll(stored.rejected);
+        if (!stored.symbols.isEmpty()) {
+            symbols = stored.symbols;
+        }
+    }
+
+    /**
+     * Writes time of retrieval and symbols to the file, replacing it only when all symbols are written.
+     */
+    private void store(long retrieved) {
+        List<String> lines = new ArrayList<>(symbols.size() + 1);
+        lines.add(HEADER_PREFIX + retrieved);
+        lines.addAll(symbols);
+        try {
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), "symbols_", ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            err("Cannot store symbols in %s. %s", path.toAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Creates key of rejected symbol and currency pair.
+     */
+    private static String key(String symbol, String ccy) {
+        return symbol + "/" + ccy;
+    }
+
+    /**
+     * Content of the file with symbols.
+     */
+    private static class StoredCatalog {
+
+        // 0 if time of retrieval is not known
+        long retrieved;
+        final Set<String> symbols = new HashSet<>();
+        final Set<String> rejected = new HashSet<>();
+    }
+
+    /**
+     * Logs message to standard error output.
+     */
+    private static void err(String format, Object... args) {
+        System.err.println(String.format(format, args));
+    }
+}
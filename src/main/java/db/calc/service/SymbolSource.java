@@ -0,0 +1,18 @@
+package db.calc.service;
+
+import java.util.Set;
+
+/**
+ * Source of all symbols supported by price service.
+ */
+public interface SymbolSource {
+
+    /**
+     * Gets all supported cryptocurrencies.
+     * It throws {@link PriceServiceException} if symbols cannot be retrieved.
+     *
+     * @return symbols
+     * @throws PriceServiceException if service is not reachable
+     */
+    Set<String> getSymbols() throws PriceServiceException;
+}
@@ -0,0 +1,127 @@
+package db.calc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import db.calc.portfolio.FileBasedPortfolioProvider;
+import db.calc.portfolio.PortfolioPosition;
+import db.calc.portfolio.PortfolioProvider;
+import db.calc.service.PriceService;
+
+/**
+ * Allocation regression tests for parsing and evaluation of positions.
+ * Allocated bytes of the current thread are measured for generated portfolio and compared with budget
+ * from allocation_budget.properties. Budget should be updated only together with the change that justifies it.
+ * <p>Each measurement is repeated and the lowest value is used, so that JIT compilation does not affect the result.
+ * Budget applies to all supported Java versions, tests are skipped only if JVM cannot measure allocated bytes.
+ */
+public class AllocationBudgetTest {
+
+    private static final int LINES = 20_000;
+    private static final int SYMBOLS = 1_000;
+    private static final int POSITIONS = 5_000;
+    private static final int REPETITIONS = 20;
+
+    private static com.sun.management.ThreadMXBean threadBean;
+    private static Properties budget;
+    private static File tempFile;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        budget = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("allocation_budget.properties")) {
+            budget.load(in);
+        }
+        tempFile = File.createTempFile("temp_portfolio_", ".tmp");
+        tempFile.deleteOnExit();
+        List<String> lines = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            lines.add("S" + (i % SYMBOLS) + "=" + (i % 100));
+        }
+        Files.write(tempFile.toPath(), lines);
+    }
+
+    @Test
+    public void testParsing() {
+        PortfolioProvider provider = new FileBasedPortfolioProvider(tempFile.getAbsolutePath());
+        long bytes = measure(() -> Assert.assertEquals(SYMBOLS, provider.getPortfolio().size()));
+        validate("bytes.per.line", bytes / LINES);
+    }
+
+    @Test
+    public void testEvaluation() {
+        Set<PortfolioPosition> positions = new HashSet<>();
+        for (int i = 0; i < POSITIONS; i++) {
+            positions.add(new PortfolioPosition("S" + i, i));
+        }
+        BigDecimal price = new BigDecimal("123.45");
+        PriceService priceService = new PriceService() {
+
+            @Override
+            public BigDecimal getPrice(String symbol, String ccy) {
+                return price;
+            }
+
+            @Override
+            public String getInfo() {
+                return "TestPriceService";
+            }
+        };
+        PortfolioProvider provider = new PortfolioProvider() {
+
+            @Override
+            public Set<PortfolioPosition> getPortfolio() {
+                return positions;
+            }
+
+            @Override
+            public String getInfo() {
+                return "TestPortfolioProvider";
+            }
+        };
+        PortfolioCalculator calc = new PortfolioCalculator(priceService, provider);
+        long bytes = measure(() -> calc.calculate("EUR"));
+        validate("bytes.per.position", bytes / POSITIONS);
+    }
+
+    /**
+     * Runs given action several times and returns the lowest number of bytes allocated by single run.
+     */
+    private static long measure(Runnable action) {
+        long threadId = Thread.currentThread().getId();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < REPETITIONS; i++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            action.run();
+            min = Math.min(min, threadBean.getThreadAllocatedBytes(threadId) - before);
+        }
+        return min;
+    }
+
+    /**
+     * Checks that measured value does not exceed its budget.
+     */
+    private static void validate(String key, long actual) {
+        long expected = Long.parseLong(budget.getProperty(key));
+        Assert.assertTrue("Allocation " + key + " " + actual + " exceeds budget " + expected, actual <= expected);
+    }
+}
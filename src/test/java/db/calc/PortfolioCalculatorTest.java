@@ -2,10 +2,14 @@ package db.calc;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,9 +18,15 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import db.calc.portfolio.FileBasedPortfolioProvider;
+import db.calc.portfolio.PortfolioPosition;
+import db.calc.report.ReportFormat;
+import db.calc.report.Reporter;
+import db.calc.service.CatalogPriceService;
 import db.calc.service.PriceNotFoundException;
 import db.calc.service.PriceService;
 import db.calc.service.PriceServiceException;
+import db.calc.service.SymbolCatalog;
+import db.calc.service.SymbolSource;
 
 /**
  * Tests for {@linkplain PortfolioCalculator}.
@@ -69,6 +79,117 @@ public class PortfolioCalculatorTest {
         Assert.assertEquals(new BigDecimal((5 * 15) + (10 * 25)), calc.calculate("USD"));
     }
 
+    @Test
+    public void testReport() throws IOException {
+        insertPositions(tempFile, "ABC=5");
+        StringWriter out = new StringWriter();
+        Reporter reporter = ReportFormat.CSV.create(out, true);
+        PortfolioCalculator calc = new PortfolioCalculator(priceService,
+                new FileBasedPortfolioProvider(tempFile.getAbsolutePath()), reporter);
+        calc.calculate("EUR");
+        reporter.close();
+        Assert.assertTrue(out.toString().contains("position,ABC,5,10,50,EUR,\n"));
+        Assert.assertTrue(out.toString().contains("total,,,,50,EUR,\n"));
+    }
+
+    @Test
+    public void testBudget() throws IOException {
+        insertPositions(tempFile, "ABC=5", "XYZ=10", "AAA=1");
+        // XYZ does not respond within budget and AAA has no price
+        PriceService slowPriceService = new PriceService() {
+
+            @Override
+            public BigDecimal getPrice(String symbol, String ccy) throws PriceNotFoundException {
+                if ("AAA".equals(symbol)) {
+                    throw new PriceNotFoundException("Unknown symbol");
+                }
+                if ("XYZ".equals(symbol)) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return priceService.getPrice(symbol, ccy);
+            }
+
+            @Override
+            public String getInfo() {
+                return "SlowPriceService";
+            }
+        };
+        PortfolioCalculator calc = new PortfolioCalculator(slowPriceService,
+                new FileBasedPortfolioProvider(tempFile.getAbsolutePath()));
+        long budgetMs = 500;
+        long start = System.nanoTime();
+        Valuation valuation = calc.calculate("EUR", budgetMs);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        // only checks that slow lookup was not awaited, exact time depends on the machine
+        Assert.assertTrue("Evaluation took " + elapsedMs + " ms", elapsedMs < 5_000);
+        Assert.assertEquals(new BigDecimal(5 * 10), valuation.getTotal());
+        Assert.assertEquals(1, valuation.getValues().size());
+        Assert.assertTrue(valuation.getTimedOut().contains(new PortfolioPosition("XYZ", 10)));
+        Assert.assertTrue(valuation.getUnpriced().contains(new PortfolioPosition("AAA", 1)));
+        Assert.assertFalse(valuation.isComplete());
+        Assert.assertEquals(2.0 / 3, valuation.getUnpricedShare(), 1e-9);
+    }
+
+    @Test
+    public void testServiceTimeout() throws IOException {
+        insertPositions(tempFile, "ABC=5", "XYZ=10", "AAA=1");
+        // XYZ fails on socket timeout and AAA on other service error
+        PriceService failingPriceService = new PriceService() {
+
+            @Override
+            public BigDecimal getPrice(String symbol, String ccy) throws PriceNotFoundException {
+                if ("XYZ".equals(symbol)) {
+                    throw new PriceServiceException("Cannot connect to service", new SocketTimeoutException());
+                }
+                if ("AAA".equals(symbol)) {
+                    throw new PriceServiceException("Unexpected response");
+                }
+                return priceService.getPrice(symbol, ccy);
+            }
+
+            @Override
+            public String getInfo() {
+                return "FailingPriceService";
+            }
+        };
+        PortfolioCalculator calc = new PortfolioCalculator(failingPriceService,
+                new FileBasedPortfolioProvider(tempFile.getAbsolutePath()));
+        Valuation valuation = calc.calculate("EUR", 1_000);
+        Assert.assertEquals(new BigDecimal(5 * 10), valuation.getTotal());
+        Assert.assertEquals(Collections.singleton(new PortfolioPosition("XYZ", 10)), valuation.getTimedOut());
+        Assert.assertEquals(Collections.singleton(new PortfolioPosition("AAA", 1)), valuation.getUnpriced());
+    }
+
+    @Test
+    public void testBudgetWithSlowCatalog() throws IOException {
+        insertPositions(tempFile, "ABC=5", "XYZ=10");
+        File catalogFile = File.createTempFile("temp_catalog_", ".tmp");
+        catalogFile.deleteOnExit();
+        Files.delete(catalogFile.toPath());
+        // retrieving symbols takes longer than the whole budget
+        SymbolSource slowSource = () -> {
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HashSet<>(Arrays.asList("ABC", "XYZ"));
+        };
+        PriceService catalogPriceService = new CatalogPriceService(priceService,
+                new SymbolCatalog(slowSource, catalogFile.toPath(), SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS));
+        PortfolioCalculator calc = new PortfolioCalculator(catalogPriceService,
+                new FileBasedPortfolioProvider(tempFile.getAbsolutePath()));
+        Valuation valuation = calc.calculate("EUR", 200);
+        Assert.assertTrue(valuation.isComplete());
+        Assert.assertEquals(new BigDecimal(5 * 10 + 10 * 20), valuation.getTotal());
+        // symbols are stored for next run
+        Assert.assertTrue(Files.readAllLines(catalogFile.toPath()).contains("XYZ"));
+    }
+
     /**
      * Inserts entries/lines to portfolio file.
      */
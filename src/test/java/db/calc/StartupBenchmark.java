@@ -0,0 +1,233 @@
+package db.calc;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+/**
+ * Measures time to result of {@linkplain PortfolioCalculator} started from command line in new JVM,
+ * with and without class data sharing archive. Time is measured until total value is printed.
+ * <p>Prices are requested from local HTTPS stub of the price service (system property minapi.url),
+ * so the measurement includes TLS handshake and parsing of responses but does not depend on network.
+ * The stub uses self-signed certificate created with keytool that the calculator trusts.
+ * One symbol of the portfolio is not in the symbol catalog and is skipped without request.
+ * <p>Usage:
+ * <ul>
+ * <li>train JAR ARCHIVE - runs calculator once and stores loaded classes in ARCHIVE</li>
+ * <li>run JAR ARCHIVE BUDGET_MS - runs calculator several times and fails if median time with ARCHIVE exceeds BUDGET_MS</li>
+ * </ul>
+ * Both are executed by Maven profile cds, see pom.xml.
+ */
+public class StartupBenchmark {
+
+    private static final String MAIN_CLASS = "db.calc.PortfolioCalculator";
+    // same options as in portfolio.sh
+    private static final List<String> JVM_OPTIONS = Arrays.asList("-XX:TieredStopAtLevel=1");
+    private static final int RUNS = 7;
+    private static final long PROCESS_TIMEOUT_S = 60;
+    private static final String STORE_PASSWORD = "benchmark";
+    private static final Pattern QUERY_PATTERN = Pattern.compile("fsym=(\\w+)&tsyms=(\\w+)");
+
+    public static void main(String... args) throws Exception {
+        if (args.length == 3 && "train".equals(args[0])) {
+            train(args[1], args[2]);
+        } else if (args.length == 4 && "run".equals(args[0])) {
+            run(args[1], args[2], Long.parseLong(args[3]));
+        } else {
+            System.err.println("Usage: train JAR ARCHIVE | run JAR ARCHIVE BUDGET_MS");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Runs calculator once and dumps loaded classes to given archive.
+     */
+    private static void train(String jar, String archive) throws Exception {
+        Files.deleteIfExists(new File(archive).toPath());
+        try (Stub stub = new Stub()) {
+            long timeMs = stub.launch(jar, "-XX:ArchiveClassesAtExit=" + archive);
+            if (!new File(archive).exists()) {
+                fail("Archive " + archive + " was not created");
+            }
+            System.out.printf("Created archive %s in %d ms\n", archive, timeMs);
+        }
+    }
+
+    /**
+     * Runs calculator several times with and without archive and compares median with budget.
+     */
+    private static void run(String jar, String archive, long budgetMs) throws Exception {
+        List<Long> withoutArchive = new ArrayList<>();
+        List<Long> withArchive = new ArrayList<>();
+        try (Stub stub = new Stub()) {
+            for (int i = 0; i < RUNS; i++) {
+                withoutArchive.add(stub.launch(jar, "-Xshare:auto"));
+                // fail instead of silently ignoring archive that cannot be used
+                withArchive.add(stub.launch(jar, "-XX:SharedArchiveFile=" + archive, "-Xshare:on"));
+            }
+        }
+        long median = median(withArchive);
+        System.out.printf("Time to result: %d ms without archive, %d ms with archive (budget %d ms)\n",
+                median(withoutArchive), median, budgetMs);
+        if (median > budgetMs) {
+            fail("Time to result " + median + " ms exceeds budget " + budgetMs + " ms");
+        }
+    }
+
+    /**
+     * Gets median of given values.
+     */
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * Reports failure and exits with error status.
+     */
+    private static void fail(String message) {
+        System.err.println(message);
+        System.exit(1);
+    }
+
+    /**
+     * Local HTTPS stub of the price service together with files used by the calculator.
+     * Each symbol costs 1.5 in every currency.
+     */
+    private static class Stub implements AutoCloseable {
+
+        private final Path dir;
+        private final Path keyStore;
+        private final HttpsServer server;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        Stub() throws Exception {
+            dir = Files.createTempDirectory("startup_");
+            keyStore = dir.resolve("stub.p12");
+            createKeyStore();
+            KeyStore keys = KeyStore.getInstance("PKCS12");
+            try (InputStream in = Files.newInputStream(keyStore)) {
+                keys.load(in, STORE_PASSWORD.toCharArray());
+            }
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keys, STORE_PASSWORD.toCharArray());
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), null, null);
+            server = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.setHttpsConfigurator(new HttpsConfigurator(context));
+            server.createContext("/data/price", this::price);
+            server.start();
+        }
+
+        /**
+         * Creates key store with self-signed certificate of the loopback address.
+         */
+        private void createKeyStore() throws Exception {
+            Process process = new ProcessBuilder(javaHome("keytool"), "-genkeypair", "-keyalg", "RSA", "-alias", "stub",
+                    "-dname", "CN=localhost", "-ext", "SAN=ip:127.0.0.1", "-validity", "1", "-storetype", "PKCS12",
+                    "-keystore", keyStore.toString(), "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD)
+                            .redirectErrorStream(true).redirectOutput(dir.resolve("keytool.log").toFile()).start();
+            if (!process.waitFor(PROCESS_TIMEOUT_S, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                fail("Cannot create key store " + keyStore + "\n"
+                        + new String(Files.readAllBytes(dir.resolve("keytool.log")), StandardCharsets.UTF_8));
+            }
+        }
+
+        /**
+         * Responds to price request like the price service, e.g. {"EUR":1.5}.
+         */
+        private void price(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            Matcher matcher = QUERY_PATTERN.matcher(exchange.getRequestURI().getQuery());
+            byte[] body = (matcher.matches() ? "{\"" + matcher.group(2) + "\":1.5}" : "{}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+
+        /**
+         * Starts calculator in new JVM with given options and returns time until it prints total value.
+         */
+        long launch(String jar, String... options) throws Exception {
+            Path portfolio = dir.resolve("portfolio.txt");
+            Path catalog = dir.resolve("catalog.txt");
+            Files.write(portfolio, Arrays.asList("ABC=1", "AAA=10", "XYZ=5"));
+            Files.write(catalog, Arrays.asList("#retrieved=" + System.currentTimeMillis(), "ABC", "XYZ", "BTC"));
+            List<String> command = new ArrayList<>();
+            command.add(javaHome("java"));
+            command.addAll(JVM_OPTIONS);
+            Collections.addAll(command, options);
+            Collections.addAll(command, "-Dminapi.url=https://127.0.0.1:" + server.getAddress().getPort() + "/data",
+                    "-Djavax.net.ssl.trustStore=" + keyStore, "-Djavax.net.ssl.trustStorePassword=" + STORE_PASSWORD,
+                    "-Djavax.net.ssl.trustStoreType=PKCS12");
+            Collections.addAll(command, "-cp", jar, MAIN_CLASS, "-f", portfolio.toString(), "-s", catalog.toString());
+            int requestsBefore = requests.get();
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            // error output is merged only to report it on failure
+            long total = 0;
+            List<String> output = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (total == 0 && line.startsWith("Total value")) {
+                        total = System.nanoTime();
+                    }
+                    output.add(line);
+                }
+            }
+            if (!process.waitFor(PROCESS_TIMEOUT_S, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                fail("Calculator did not finish within " + PROCESS_TIMEOUT_S + " s");
+            }
+            // ABC and XYZ must be priced by the stub
+            if (process.exitValue() != 0 || total == 0 || requests.get() - requestsBefore != 2) {
+                fail("Unexpected result of " + command + "\n" + String.join("\n", output));
+            }
+            return TimeUnit.NANOSECONDS.toMillis(total - start);
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.stop(0);
+            for (File file : dir.toFile().listFiles()) {
+                file.delete();
+            }
+            Files.delete(dir);
+        }
+
+        /**
+         * Gets path of given executable of current Java.
+         */
+        private static String javaHome(String executable) {
+            return System.getProperty("java.home") + File.separator + "bin" + File.separator + executable;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package db.calc.cluster;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import db.calc.PortfolioCalculator;
+import db.calc.portfolio.FileBasedPortfolioProvider;
+import db.calc.service.PriceNotFoundException;
+import db.calc.service.PriceService;
+import db.calc.service.PriceServiceException;
+
+/**
+ * Tests for {@linkplain ValuationCoordinator} and {@linkplain ValuationWorker}.
+ * Workers run in the same JVM but communicate over local sockets.
+ * It creates temporary file that gets removed automatically.
+ */
+public class ValuationCoordinatorTest {
+
+    private static final int LINES = 1_000;
+    private static final int TIMEOUT_MS = 5_000;
+
+    private static File tempFile;
+    private static BigDecimal expected;
+
+    // price of each symbol is its number, symbols starting with X have no price
+    private static PriceService priceService = new PriceService() {
+
+        @Override
+        public BigDecimal getPrice(String symbol, String ccy) throws PriceServiceException, PriceNotFoundException {
+            if (symbol.startsWith("X")) {
+                throw new PriceNotFoundException("Unknown symbol " + symbol);
+            }
+            return new BigDecimal(symbol.substring(1));
+        }
+
+        @Override
+        public String getInfo() {
+            return "TestPriceService";
+        }
+    };
+
+    private List<ValuationWorker> workers;
+
+    @BeforeClass
+    public static void createTempFile() throws IOException {
+        tempFile = File.createTempFile("temp_portfolio_", ".tmp");
+        tempFile.deleteOnExit();
+        List<String> lines = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            lines.add((i % 10 == 0 ? "X" : "S") + (i % 50) + "=" + i);
+        }
+        lines.add("invalid");
+        Files.write(tempFile.toPath(), lines);
+        expected = new PortfolioCalculator(priceService, new FileBasedPortfolioProvider(tempFile.getAbsolutePath()))
+                .calculate("EUR");
+    }
+
+    @Before
+    public void startWorkers() throws IOException {
+        workers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ValuationWorker worker = new ValuationWorker(0, priceService);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @After
+    public void stopWorkers() throws IOException {
+        for (ValuationWorker worker : workers) {
+            worker.close();
+        }
+    }
+
+    @Test
+    public void testFileRange() {
+        ValuationCoordinator coordinator = new ValuationCoordinator(addresses(), TIMEOUT_MS);
+        Assert.assertEquals(expected, coordinator.calculate(tempFile.getAbsolutePath(), "EUR", 7));
+    }
+
+    @Test
+    public void testSymbolHash() {
+        ValuationCoordinator coordinator = new ValuationCoordinator(addresses(), TIMEOUT_MS);
+        Assert.assertEquals(expected,
+                coordinator.calculate(new FileBasedPortfolioProvider(tempFile.getAbsolutePath()), "EUR", 5));
+    }
+
+    @Test
+    public void testStoppedWorker() throws IOException {
+        List<InetSocketAddress> addresses = addresses();
+        workers.get(0).close();
+        ValuationCoordinator coordinator = new ValuationCoordinator(addresses, TIMEOUT_MS);
+        Assert.assertEquals(expected, coordinator.calculate(tempFile.getAbsolutePath(), "EUR", 6));
+    }
+
+    @Test
+    public void testFailingWorker() throws IOException {
+        // worker that drops each connection without response
+        try (ServerSocket broken = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            Thread thread = new Thread(() -> {
+                while (!broken.isClosed()) {
+                    try (Socket socket = broken.accept()) {
+                        // close immediately
+                    } catch (IOException e) {
+                        // closed
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            List<InetSocketAddress> addresses = new ArrayList<>(addresses());
+            addresses.add(0, new InetSocketAddress(InetAddress.getLoopbackAddress(), broken.getLocalPort()));
+            ValuationCoordinator coordinator = new ValuationCoordinator(addresses, TIMEOUT_MS);
+            Assert.assertEquals(expected, coordinator.calculate(tempFile.getAbsolutePath(), "EUR", 8));
+        }
+    }
+
+    @Test
+    public void testHangingWorker() throws IOException {
+        // worker that accepts each connection and never responds
+        List<Socket> accepted = new CopyOnWriteArrayList<>();
+        try (ServerSocket hanging = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            Thread thread = new Thread(() -> {
+                while (!hanging.isClosed()) {
+                    try {
+                        accepted.add(hanging.accept());
+                    } catch (IOException e) {
+                        // closed
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            List<InetSocketAddress> addresses = new ArrayList<>(addresses());
+            addresses.add(0, new InetSocketAddress(InetAddress.getLoopbackAddress(), hanging.getLocalPort()));
+            int timeoutMs = 500;
+            ValuationCoordinator coordinator = new ValuationCoordinator(addresses, timeoutMs);
+            long start = System.nanoTime();
+            Assert.assertEquals(expected, coordinator.calculate(tempFile.getAbsolutePath(), "EUR", 8));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            // partitions are sent to hanging worker in parallel, so they are re-dispatched after single timeout
+            Assert.assertTrue("Evaluation took " + elapsedMs + " ms", elapsedMs < TIMEOUT_MS);
+            Assert.assertFalse(accepted.isEmpty());
+        } finally {
+            for (Socket socket : accepted) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test(expected = ClusterException.class)
+    public void testNoWorker() throws IOException {
+        List<InetSocketAddress> addresses = addresses();
+        stopWorkers();
+        new ValuationCoordinator(addresses, TIMEOUT_MS).calculate(tempFile.getAbsolutePath(), "EUR", 2);
+    }
+
+    @Test(expected = ClusterException.class)
+    public void testWorkerError() throws IOException {
+        // workers respond with error if price service is not reachable
+        stopWorkers();
+        workers.clear();
+        workers.add(new ValuationWorker(0, new PriceService() {
+
+            @Override
+            public BigDecimal getPrice(String symbol, String ccy) throws PriceServiceException {
+                throw new PriceServiceException("Service not reachable");
+            }
+
+            @Override
+            public String getInfo() {
+                return "FailingPriceService";
+            }
+        }));
+        workers.get(0).start();
+        new ValuationCoordinator(addresses(), TIMEOUT_MS).calculate(tempFile.getAbsolutePath(), "EUR", 2);
+    }
+
+    /**
+     * Gets addresses of all workers.
+     */
+    private List<InetSocketAddress> addresses() {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (ValuationWorker worker : workers) {
+            addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.getPort()));
+        }
+        return addresses;
+    }
+}
@@ -5,8 +5,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -73,6 +75,69 @@ public class FileBasedPortfolioProviderTest {
         validate(expected, "ABC=1\n", " ABC=2 ", "XYZ=5");
     }
 
+    @Test
+    public void testRange() throws IOException {
+        insertPositions("ABC=1", "XYZ=2", "ABC=3", "invalid", "XYZ=4", "ABC=5\r", "XYZ=6");
+        long size = tempFile.length();
+        Set<PortfolioPosition> expected = getPositions(pp("ABC", 9), pp("XYZ", 12));
+        // every split of the file must read each line once
+        for (long split = 0; split <= size; split++) {
+            Set<PortfolioPosition> first = new FileBasedPortfolioProvider(tempFile.getAbsolutePath(), 0, split)
+                    .getPortfolio();
+            Set<PortfolioPosition> second = new FileBasedPortfolioProvider(tempFile.getAbsolutePath(), split, size)
+                    .getPortfolio();
+            Map<String, Integer> quantities = Stream.concat(first.stream(), second.stream()).collect(
+                    Collectors.groupingBy(PortfolioPosition::getSymbol, Collectors.summingInt(PortfolioPosition::getQuantity)));
+            Set<PortfolioPosition> actual = quantities.entrySet().stream()
+                    .map(e -> pp(e.getKey(), e.getValue())).collect(Collectors.toSet());
+            Assert.assertEquals("Split at " + split, expected, actual);
+        }
+    }
+
+    @Test
+    public void testLargeFile() throws IOException {
+        // lines cross boundaries of the read buffer and one line is longer than the buffer
+        char[] spaces = new char[100_000];
+        Arrays.fill(spaces, ' ');
+        String[] lines = new String[20_001];
+        for (int i = 0; i < lines.length - 1; i++) {
+            lines[i] = i % 2 == 0 ? "ABC=1" : "XYZ=1";
+        }
+        lines[lines.length - 1] = "ABC=1" + new String(spaces);
+        Set<PortfolioPosition> expected = getPositions(pp("ABC", 10_000 + 1), pp("XYZ", 10_000));
+        validate(expected, lines);
+    }
+
+    @Test
+    public void testLineSeparators() throws IOException {
+        validate(getPositions(pp("ABC", 4), pp("XYZ", 7)), "ABC=1\r", "XYZ=2\rABC=3", "XYZ=5");
+        // single "\r" does not end the line in a range, so "XYZ=2\rABC=3" should be ignored
+        Set<PortfolioPosition> range = new FileBasedPortfolioProvider(tempFile.getAbsolutePath(), 0,
+                tempFile.length()).getPortfolio();
+        Assert.assertEquals(getPositions(pp("ABC", 1), pp("XYZ", 5)), range);
+    }
+
+    @Test(expected = PortfolioProcessingException.class)
+    public void testMalformedInput() throws IOException {
+        byte[] content = { 'A', 'B', 'C', '=', '1', '\n', (byte) 0xFF, 'X', '=', '2', '\n' };
+        Files.write(tempFile.toPath(), content, StandardOpenOption.TRUNCATE_EXISTING);
+        provider.getPortfolio();
+    }
+
+    @Test
+    public void testMalformedInputInRange() throws IOException {
+        byte[] content = { 'A', 'B', 'C', '=', '1', '\n', (byte) 0xFF, 'X', '=', '2', '\n' };
+        Files.write(tempFile.toPath(), content, StandardOpenOption.TRUNCATE_EXISTING);
+        Set<PortfolioPosition> range = new FileBasedPortfolioProvider(tempFile.getAbsolutePath(), 0,
+                content.length).getPortfolio();
+        Assert.assertEquals(getPositions(pp("ABC", 1), pp("\uFFFDX", 2)), range);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        new FileBasedPortfolioProvider(tempFile.getAbsolutePath(), 10, 5);
+    }
+
     /**
      * It populates file with given lines and validates if retrieved portfolio matches expected one. 
      */
@@ -0,0 +1,32 @@
+package db.calc.portfolio;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@linkplain InvalidLines}.
+ */
+public class InvalidLinesTest {
+
+    @Test
+    public void testSummary() {
+        InvalidLines invalidLines = new InvalidLines();
+        invalidLines.add("ABC==5");
+        Assert.assertEquals(1, invalidLines.getCount());
+        Assert.assertEquals("Ignored 1 invalid line: [ABC==5]", invalidLines.getSummary());
+    }
+
+    @Test
+    public void testLimit() {
+        InvalidLines invalidLines = new InvalidLines();
+        int count = InvalidLines.MAX_SAMPLES + 3;
+        for (int i = 0; i < count; i++) {
+            invalidLines.add("LINE" + i);
+        }
+        Assert.assertEquals(count, invalidLines.getCount());
+        String summary = invalidLines.getSummary();
+        Assert.assertTrue(summary.startsWith("Ignored " + count + " invalid lines: [LINE0]"));
+        Assert.assertFalse(summary.contains("LINE" + InvalidLines.MAX_SAMPLES));
+        Assert.assertTrue(summary.endsWith("(3 more)"));
+    }
+}
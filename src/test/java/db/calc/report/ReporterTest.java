@@ -0,0 +1,93 @@
+package db.calc.report;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Tests for {@linkplain Reporter} implementations.
+ */
+public class ReporterTest {
+
+    @Test
+    public void testText() {
+        String expected = "Info\n" //
+                + "Evaluating PortfolioPosition[ABC|5] -> Price: 10 EUR, Value 50 EUR\n" //
+                + "Evaluating PortfolioPosition[XYZ|1] -> Skipping, price not available [Unknown]\n" //
+                + "Total value: 50 EUR\n";
+        Assert.assertEquals(expected, report(ReportFormat.TEXT));
+    }
+
+    @Test
+    public void testCsv() {
+        String expected = "type,symbol,quantity,price,value,currency,message\n" //
+                + "position,ABC,5,10,50,EUR,\n" //
+                + "skipped,XYZ,1,,,EUR,Unknown\n" //
+                + "total,,,,50,EUR,\n";
+        Assert.assertEquals(expected, report(ReportFormat.CSV));
+    }
+
+    @Test
+    public void testJson() {
+        String expected = "{\"type\":\"position\",\"symbol\":\"ABC\",\"quantity\":5,\"price\":10,\"value\":50,\"currency\":\"EUR\"}\n" //
+                + "{\"type\":\"skipped\",\"symbol\":\"XYZ\",\"quantity\":1,\"currency\":\"EUR\",\"message\":\"Unknown\"}\n" //
+                + "{\"type\":\"total\",\"value\":50,\"currency\":\"EUR\"}\n";
+        Assert.assertEquals(expected, report(ReportFormat.JSON));
+    }
+
+    @Test
+    public void testEscaping() {
+        StringWriter csv = new StringWriter();
+        Reporter reporter = ReportFormat.CSV.create(csv, true);
+        reporter.skipped(new PortfolioPosition("XYZ", 1), "EUR", "Cannot extract price from {\"A\":1,\"B\":2}");
+        reporter.close();
+        Assert.assertTrue(csv.toString().endsWith(",\"Cannot extract price from {\"\"A\"\":1,\"\"B\"\":2}\"\n"));
+
+        StringWriter json = new StringWriter();
+        reporter = ReportFormat.JSON.create(json, true);
+        reporter.skipped(new PortfolioPosition("XYZ", 1), "EUR", "{\"A\":1}\n");
+        reporter.close();
+        Assert.assertTrue(json.toString().endsWith(",\"message\":\"{\\\"A\\\":1}\\u000a\"}\n"));
+    }
+
+    @Test
+    public void testBuffering() {
+        StringWriter out = new StringWriter();
+        Reporter reporter = ReportFormat.TEXT.create(out, false);
+        reporter.total(BigDecimal.TEN, "EUR");
+        Assert.assertTrue(out.toString().isEmpty()); // nothing written until closed
+        reporter.close();
+        Assert.assertEquals("Total value: 10 EUR\n", out.toString());
+    }
+
+    @Test
+    public void testFormat() {
+        Assert.assertEquals(ReportFormat.JSON, ReportFormat.of("json"));
+        Assert.assertEquals(ReportFormat.CSV, ReportFormat.of("CSV"));
+        try {
+            ReportFormat.of("xml");
+        } catch (IllegalArgumentException e) {
+            // expected
+            return;
+        }
+        Assert.fail("Expected validation error for xml");
+    }
+
+    /**
+     * Reports sample results in given format.
+     */
+    private String report(ReportFormat format) {
+        StringWriter out = new StringWriter();
+        Reporter reporter = format.create(out, true);
+        reporter.info("Info\n");
+        reporter.position(new PortfolioPosition("ABC", 5), BigDecimal.TEN, new BigDecimal(50), "EUR");
+        reporter.skipped(new PortfolioPosition("XYZ", 1), "EUR", "Unknown");
+        reporter.total(new BigDecimal(50), "EUR");
+        reporter.close();
+        return out.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package db.calc.scenario;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Measures evaluation of 10K scenarios x 1K positions with {@linkplain ScenarioEngine}.
+ * It reports median time of several runs for relative and correlated shocks and fails if it exceeds given budget.
+ * <p>Usage: java -cp target/classes:target/test-classes db.calc.scenario.ScenarioBenchmark [BUDGET_MS]
+ */
+public class ScenarioBenchmark {
+
+    private static final int SCENARIOS = 10_000;
+    private static final int POSITIONS = 1_000;
+    private static final int FACTORS = 4;
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 11;
+    private static final long DEFAULT_BUDGET_MS = 1000;
+
+    public static void main(String... args) {
+        long budgetMs = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_BUDGET_MS;
+        Random random = new Random(1);
+        String[] symbols = new String[POSITIONS];
+        Map<String, BigDecimal> prices = new HashMap<>();
+        List<PortfolioPosition> positions = new ArrayList<>(POSITIONS);
+        for (int i = 0; i < POSITIONS; i++) {
+            symbols[i] = "S" + i;
+            prices.put(symbols[i], BigDecimal.valueOf(1 + random.nextInt(10_000)));
+            positions.add(new PortfolioPosition(symbols[i], 1 + random.nextInt(1_000)));
+        }
+        double[][] shocks = new double[SCENARIOS][POSITIONS];
+        for (double[] row : shocks) {
+            for (int i = 0; i < POSITIONS; i++) {
+                row[i] = random.nextDouble() - 0.5;
+            }
+        }
+        double[][] loadings = new double[POSITIONS][FACTORS];
+        for (double[] row : loadings) {
+            for (int f = 0; f < FACTORS; f++) {
+                row[f] = random.nextDouble();
+            }
+        }
+        double[][] factorShocks = new double[SCENARIOS][FACTORS];
+        for (double[] row : factorShocks) {
+            for (int f = 0; f < FACTORS; f++) {
+                row[f] = (random.nextDouble() - 0.5) / 10;
+            }
+        }
+        ScenarioEngine engine = new ScenarioEngine(prices, positions);
+        long relative = measure(engine, ShockMatrix.relative(symbols, shocks));
+        long correlated = measure(engine, ShockMatrix.correlated(symbols, loadings, factorShocks));
+        System.out.printf("%d scenarios x %d positions on %d processors: relative %d ms, correlated (%d factors) %d ms"
+                + " (budget %d ms)\n", SCENARIOS, POSITIONS, Runtime.getRuntime().availableProcessors(), relative,
+                FACTORS, correlated, budgetMs);
+        if (Math.max(relative, correlated) > budgetMs) {
+            System.err.println("Evaluation exceeds budget " + budgetMs + " ms");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Evaluates given matrix several times and returns median time in milliseconds.
+     */
+    private static long measure(ScenarioEngine engine, ShockMatrix matrix) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            engine.evaluate(matrix);
+        }
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            engine.evaluate(matrix);
+            times[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
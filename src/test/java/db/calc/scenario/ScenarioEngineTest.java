@@ -0,0 +1,94 @@
+package db.calc.scenario;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import db.calc.portfolio.PortfolioPosition;
+
+/**
+ * Tests for {@linkplain ScenarioEngine} and {@linkplain ShockMatrix}.
+ */
+public class ScenarioEngineTest {
+
+    private static final double DELTA = 1e-9;
+
+    private ScenarioEngine engine;
+
+    @Before
+    public void setup() {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        prices.put("ABC", new BigDecimal(10));
+        prices.put("XYZ", new BigDecimal(20));
+        List<PortfolioPosition> positions = Arrays.asList(new PortfolioPosition("ABC", 5),
+                new PortfolioPosition("XYZ", 10), new PortfolioPosition("AAA", 1)); // AAA has no price
+        engine = new ScenarioEngine(prices, positions);
+    }
+
+    @Test
+    public void testValue() {
+        Assert.assertEquals(2, engine.getPositions());
+        Assert.assertEquals(5 * 10 + 10 * 20, engine.getValue(), DELTA);
+    }
+
+    @Test
+    public void testAbsolute() {
+        double[] values = engine.evaluate(ShockMatrix.absolute(new String[] { "ABC", "XYZ" },
+                new double[][] { { 0, 0 }, { 1, -2 }, { -20, 0 } }));
+        Assert.assertArrayEquals(new double[] { 250, 5 * 11 + 10 * 18, 10 * 20 }, values, DELTA); // price >= 0
+    }
+
+    @Test
+    public void testRelative() {
+        double[] values = engine.evaluate(ShockMatrix.relative(new String[] { "XYZ" }, // ABC not shocked
+                new double[][] { { 0.1 }, { -0.5 } }));
+        Assert.assertArrayEquals(new double[] { 50 + 10 * 22, 50 + 10 * 10 }, values, DELTA);
+    }
+
+    @Test
+    public void testCorrelated() {
+        // two factors, ABC depends only on first, XYZ on both
+        double[] values = engine.evaluate(ShockMatrix.correlated(new String[] { "ABC", "XYZ" },
+                new double[][] { { 1, 0 }, { 0.5, 0.5 } }, new double[][] { { 0.2, 0 }, { 0, -0.4 } }));
+        Assert.assertArrayEquals(new double[] { 5 * 12 + 10 * 22, 5 * 10 + 10 * 16 }, values, DELTA);
+    }
+
+    @Test
+    public void testParallel() {
+        // enough scenarios to be split between several tasks
+        int scenarios = 10_000;
+        double[][] shocks = new double[scenarios][2];
+        Random random = new Random(1);
+        for (double[] shock : shocks) {
+            shock[0] = random.nextDouble() - 0.5;
+            shock[1] = random.nextDouble() - 0.5;
+        }
+        double[] values = engine.evaluate(ShockMatrix.relative(new String[] { "ABC", "XYZ" }, shocks));
+        for (int s = 0; s < scenarios; s++) {
+            Assert.assertEquals(50 * (1 + shocks[s][0]) + 200 * (1 + shocks[s][1]), values[s], DELTA);
+        }
+    }
+
+    @Test
+    public void testValidation() {
+        try {
+            ShockMatrix.relative(new String[] { "ABC", "XYZ" }, new double[][] { { 0.1, 0.2 }, { 0.1 } });
+        } catch (IllegalArgumentException e) {
+            // expected
+            return;
+        }
+        Assert.fail("Expected validation error for incomplete scenario");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateSymbol() {
+        ShockMatrix.absolute(new String[] { "ABC", "ABC" }, new double[][] { { 1, 2 } });
+    }
+}
@@ -1,5 +1,6 @@
 package db.calc.service;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 
 import org.junit.Assert;
@@ -39,4 +40,28 @@ public class MinApiPriceServiceTest {
             Assert.fail("Expected validation error for " + Arrays.toString(value));
         }
     }
+
+    @Test
+    public void testExtractPrice() throws PriceNotFoundException {
+        MinApiPriceService minApi = new MinApiPriceService();
+        Assert.assertEquals(new BigDecimal("10378.85"), minApi.extractPrice("EUR", "{\"EUR\":10378.85}"));
+        String[] responses = { "{\"Response\":\"Error\",\"Message\":\"You are over your rate limit please upgrade your account!\"}",
+                "{\"EUR\":invalid}", "{\"USD\":10378.85}" };
+        for (String response : responses) {
+            try {
+                minApi.extractPrice("EUR", response);
+                Assert.fail("Expected price not found for " + response);
+            } catch (MarketNotFoundException e) {
+                Assert.fail("Unexpected market not found for " + response);
+            } catch (PriceNotFoundException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = MarketNotFoundException.class)
+    public void testMarketNotFound() throws PriceNotFoundException {
+        new MinApiPriceService().extractPrice("EUR",
+                "{\"Response\":\"Error\",\"Message\":\"There is no data for the symbol ABC .\",\"Type\":2}");
+    }
 }
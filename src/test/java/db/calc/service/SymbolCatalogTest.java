@@ -0,0 +1,188 @@
+package db.calc.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@linkplain SymbolCatalog}.
+ * It creates temporary file that gets removed automatically.
+ */
+public class SymbolCatalogTest {
+
+    private Path path;
+    // number of calls to symbol source
+    private AtomicInteger calls;
+    private SymbolSource source;
+
+    @Before
+    public void setup() throws IOException {
+        File tempFile = File.createTempFile("temp_catalog_", ".tmp");
+        tempFile.deleteOnExit();
+        Files.delete(tempFile.toPath());
+        path = tempFile.toPath();
+        calls = new AtomicInteger();
+        source = () -> {
+            calls.incrementAndGet();
+            return new HashSet<>(Arrays.asList("BTC", "ETH"));
+        };
+    }
+
+    @Test
+    public void testLookup() {
+        SymbolCatalog catalog = new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        Assert.assertFalse(catalog.isUnknown("BTC", "EUR"));
+        Assert.assertTrue(catalog.isUnknown("ABC", "EUR"));
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testStoredSymbols() {
+        new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS).isUnknown("BTC", "EUR");
+        SymbolCatalog catalog = new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        Assert.assertFalse(catalog.isUnknown("ETH", "EUR"));
+        Assert.assertTrue(catalog.isUnknown("AAA", "EUR"));
+        Assert.assertEquals(1, calls.get()); // symbols read from file
+    }
+
+    @Test
+    public void testRefresh() {
+        SymbolCatalog catalog = new SymbolCatalog(source, path, 0);
+        catalog.isUnknown("BTC", "EUR");
+        catalog.isUnknown("BTC", "EUR");
+        Assert.assertEquals(2, calls.get()); // stored symbols outdated immediately
+    }
+
+    @Test
+    public void testRejected() throws IOException {
+        SymbolCatalog catalog = new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        Assert.assertFalse(catalog.isUnknown("ETH", "XYZ"));
+        catalog.reject("ETH", "XYZ");
+        Assert.assertTrue(catalog.isUnknown("ETH", "XYZ"));
+        Assert.assertFalse(catalog.isUnknown("ETH", "EUR"));
+        List<String> lines = Files.readAllLines(path);
+        Assert.assertTrue(lines.contains("-ETH/XYZ"));
+        // rejected pair is read from file
+        catalog = new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        Assert.assertTrue(catalog.isUnknown("ETH", "XYZ"));
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testRejectedInOutdatedFile() throws IOException {
+        // symbols retrieved 2 days ago, rejected pair appended now must not make the file fresh
+        long retrieved = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2);
+        Files.write(path, Arrays.asList("#retrieved=" + retrieved, "BTC"));
+        SymbolCatalog catalog = new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        catalog.reject("BTC", "XYZ");
+        Assert.assertFalse(catalog.isUnknown("ETH", "EUR")); // newly listed symbol
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testRejectedBeforeLoad() {
+        // file with rejected pair only has no symbols, so symbols are retrieved
+        SymbolCatalog catalog = new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        catalog.reject("AAA", "EUR");
+        Assert.assertTrue(catalog.isUnknown("ABC", "EUR"));
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testFileWithoutHeader() throws IOException {
+        Files.write(path, Arrays.asList("BTC"));
+        SymbolCatalog catalog = new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        Assert.assertFalse(catalog.isUnknown("ETH", "EUR"));
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testOutdatedFileWithUnavailableSource() throws IOException {
+        long retrieved = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2);
+        Files.write(path, Arrays.asList("#retrieved=" + retrieved, "BTC", "-BTC/XYZ"));
+        SymbolCatalog catalog = new SymbolCatalog(() -> {
+            throw new PriceServiceException("Service unavailable");
+        }, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        Assert.assertFalse(catalog.isUnknown("BTC", "EUR"));
+        Assert.assertTrue(catalog.isUnknown("ABC", "EUR")); // outdated symbols used
+        Assert.assertTrue(catalog.isUnknown("BTC", "XYZ"));
+    }
+
+    @Test
+    public void testUnavailableSource() {
+        SymbolCatalog catalog = new SymbolCatalog(() -> {
+            throw new PriceServiceException("Service unavailable");
+        }, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS);
+        Assert.assertFalse(catalog.isUnknown("ABC", "EUR")); // all symbols accepted
+        catalog.reject("ABC", "EUR");
+        Assert.assertTrue(catalog.isUnknown("ABC", "EUR"));
+    }
+
+    @Test
+    public void testPriceService() throws PriceServiceException, PriceNotFoundException {
+        AtomicInteger requests = new AtomicInteger();
+        PriceService priceService = new CatalogPriceService(new PriceService() {
+
+            @Override
+            public BigDecimal getPrice(String symbol, String ccy) throws PriceNotFoundException {
+                requests.incrementAndGet();
+                throw new MarketNotFoundException("Not found");
+            }
+
+            @Override
+            public String getInfo() {
+                return "TestPriceService";
+            }
+        }, new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS));
+        String[][] values = { { "ABC", "EUR" }, { "BTC", "XYZ" }, { "BTC", "XYZ" } };
+        for (String[] value : values) {
+            try {
+                priceService.getPrice(value[0], value[1]);
+                Assert.fail("Expected price not found for " + Arrays.toString(value));
+            } catch (PriceNotFoundException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(1, requests.get()); // unknown and rejected symbols not requested
+    }
+
+    @Test
+    public void testTransientFailure() throws IOException, PriceServiceException, PriceNotFoundException {
+        AtomicInteger requests = new AtomicInteger();
+        PriceService priceService = new CatalogPriceService(new PriceService() {
+
+            @Override
+            public BigDecimal getPrice(String symbol, String ccy) throws PriceNotFoundException {
+                // first request fails e.g. on rate limit
+                if (requests.incrementAndGet() == 1) {
+                    throw new PriceNotFoundException("Cannot extract price");
+                }
+                return BigDecimal.ONE;
+            }
+
+            @Override
+            public String getInfo() {
+                return "TestPriceService";
+            }
+        }, new SymbolCatalog(source, path, SymbolCatalog.DEFAULT_REFRESH_INTERVAL_MS));
+        try {
+            priceService.getPrice("BTC", "EUR");
+            Assert.fail("Expected price not found");
+        } catch (PriceNotFoundException e) {
+            // expected
+        }
+        Assert.assertEquals(BigDecimal.ONE, priceService.getPrice("BTC", "EUR"));
+        Assert.assertFalse(Files.readAllLines(path).contains("-BTC/EUR"));
+    }
+}